@@ -0,0 +1,66 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import io.gravitee.fetcher.api.Resource;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Fetches a file, from 1 KB to 50 MB, and reads its whole content.
+ *
+ * @author GraviteeSource Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class FetchBenchmark {
+
+    @Param({ "1024", "65536", "1048576", "10485760", "52428800" })
+    private int size;
+
+    private GitlabStub stub;
+    private GitlabFetcher fetcher;
+    private final byte[] sink = new byte[8192];
+
+    @Setup
+    public void setup() {
+        stub = new GitlabStub().withFile(size);
+        fetcher = stub.fetcher(GitlabStub.FILEPATH);
+    }
+
+    @TearDown
+    public void tearDown() {
+        stub.close();
+    }
+
+    @Benchmark
+    public long fetch() throws Exception {
+        final Resource resource = fetcher.fetch();
+        long read = 0;
+        try (InputStream content = resource.getContent()) {
+            int count;
+            while ((count = content.read(sink)) != -1) {
+                read += count;
+            }
+        }
+        return read;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import io.vertx.core.Vertx;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * A local GitLab stub serving the files and trees requested by the benchmarks, along with fetchers configured to call it.
+ *
+ * @author GraviteeSource Team
+ */
+final class GitlabStub implements AutoCloseable {
+
+    static final String FILEPATH = "docs/index.md";
+    static final String FOLDER = "docs";
+    static final int PAGE_SIZE = 100;
+
+    private static final String PROJECT_URL = "/api/v4/projects/namespace%2Fproject/repository";
+
+    private final WireMockServer server = new WireMockServer(wireMockConfig().dynamicPort().disableRequestJournal());
+    private final Vertx vertx = Vertx.vertx();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    GitlabStub() {
+        server.start();
+    }
+
+    /**
+     * Serves a file of the given size, in its JSON representation.
+     */
+    GitlabStub withFile(int size) {
+        final byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) ('a' + i % 26);
+        }
+        final byte[] body = (
+            "{\"file_name\": \"index.md\", \"file_path\": \"" +
+            FILEPATH +
+            "\", \"size\": " +
+            size +
+            ", \"encoding\": \"base64\", \"content\": \"" +
+            Base64.getEncoder().encodeToString(content) +
+            "\", \"ref\": \"main\", \"blob_id\": \"79f7bbd25901e8334750839545a9bd021f0e4c83\"}"
+        ).getBytes(StandardCharsets.UTF_8);
+        server.stubFor(
+            get(urlEqualTo(PROJECT_URL + "/files/docs%2Findex.md?ref=main")).willReturn(aResponse().withStatus(200).withBody(body))
+        );
+        return this;
+    }
+
+    /**
+     * Serves a tree of the given number of files, split in pages of {@value #PAGE_SIZE} entries.
+     */
+    GitlabStub withTree(int entries) {
+        final int pages = Math.max(1, (entries + PAGE_SIZE - 1) / PAGE_SIZE);
+        final String url = PROJECT_URL + "/tree?path=" + FOLDER + "&ref=main&recursive=true&per_page=" + PAGE_SIZE;
+        for (int page = 1; page <= pages; page++) {
+            server.stubFor(
+                get(urlEqualTo(page == 1 ? url : url + "&page=" + page)).willReturn(
+                    aResponse()
+                        .withStatus(200)
+                        .withHeader("X-Total-Pages", String.valueOf(pages))
+                        .withBody(treePage(page, Math.min(PAGE_SIZE, entries - (page - 1) * PAGE_SIZE)))
+                )
+            );
+        }
+        return this;
+    }
+
+    static String treePage(int page, int entries) {
+        final StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < entries; i++) {
+            final String name = "page-" + page + "-file-" + i + ".md";
+            if (i > 0) {
+                body.append(',');
+            }
+            body
+                .append("{\"id\": \"")
+                .append(String.format("%040x", page * PAGE_SIZE + i))
+                .append("\", \"name\": \"")
+                .append(name)
+                .append("\", \"type\": \"blob\", \"path\": \"")
+                .append(FOLDER)
+                .append('/')
+                .append(name)
+                .append("\", \"mode\": \"100644\"}");
+        }
+        return body.append(']').toString();
+    }
+
+    GitlabFetcher fetcher(String filepath) {
+        final GitlabFetcherConfiguration config = new GitlabFetcherConfiguration();
+        config.setGitlabUrl("http://localhost:" + server.port() + "/api/v4");
+        config.setNamespace("namespace");
+        config.setProject("project");
+        config.setBranchOrTag("main");
+        config.setFilepath(filepath);
+        config.setApiVersion(ApiVersion.V4);
+        config.setTreePageSize(PAGE_SIZE);
+
+        final GitlabFetcher fetcher = new GitlabFetcher(config);
+        ReflectionTestUtils.setField(fetcher, "vertx", vertx);
+        ReflectionTestUtils.setField(fetcher, "mapper", mapper);
+        ReflectionTestUtils.setField(fetcher, "httpClientTimeout", 60_000);
+        return fetcher;
+    }
+
+    @Override
+    public void close() {
+        server.stop();
+        vertx.close();
+    }
+}
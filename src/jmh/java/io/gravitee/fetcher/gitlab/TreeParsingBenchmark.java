@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.vertx.core.buffer.Buffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Parses a page of 100 tree entries with the streaming parser, compared to building a tree with a new {@link ObjectMapper} as
+ * tree pages used to be parsed.
+ *
+ * @author GraviteeSource Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TreeParsingBenchmark {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private Buffer page;
+
+    @Setup
+    public void setup() {
+        page = Buffer.buffer(GitlabStub.treePage(1, GitlabStub.PAGE_SIZE));
+    }
+
+    @Benchmark
+    public List<GitlabTreeEntry> streamingParser() throws Exception {
+        return GitlabTreeParser.parse(mapper, page);
+    }
+
+    @Benchmark
+    public List<String> newObjectMapperTree() throws Exception {
+        final List<String> paths = new ArrayList<>();
+        for (JsonNode entry : new ObjectMapper().readTree(page.getBytes())) {
+            if ("blob".equals(entry.get("type").asText())) {
+                paths.add(entry.get("path").asText());
+            }
+        }
+        return paths;
+    }
+}
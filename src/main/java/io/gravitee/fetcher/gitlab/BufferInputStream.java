@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import io.vertx.core.buffer.Buffer;
+import java.io.InputStream;
+
+/**
+ * An {@link InputStream} reading a range of a {@link Buffer} without copying it.
+ *
+ * @author GraviteeSource Team
+ */
+final class BufferInputStream extends InputStream {
+
+    private final Buffer buffer;
+    private final int end;
+    private int position;
+
+    BufferInputStream(Buffer buffer) {
+        this(buffer, 0, buffer.length());
+    }
+
+    BufferInputStream(Buffer buffer, int start, int end) {
+        this.buffer = buffer;
+        this.position = start;
+        this.end = end;
+    }
+
+    @Override
+    public int read() {
+        return position < end ? buffer.getByte(position++) & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        if (position >= end) {
+            return -1;
+        }
+        final int count = Math.min(length, end - position);
+        buffer.getBytes(position, position + count, bytes, offset);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public long skip(long n) {
+        final int count = (int) Math.max(0, Math.min(n, end - position));
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return end - position;
+    }
+}
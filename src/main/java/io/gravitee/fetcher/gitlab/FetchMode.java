@@ -0,0 +1,32 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+/**
+ * How the content of a file is retrieved from GitLab.
+ *
+ * @author GraviteeSource Team
+ */
+public enum FetchMode {
+    /**
+     * The JSON representation of the file, embedding its metadata and its base64 encoded content.
+     */
+    JSON,
+    /**
+     * The raw content of the file, its metadata being read from the {@code X-Gitlab-*} response headers. Only supported by the v4 API.
+     */
+    RAW,
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import io.gravitee.fetcher.api.FetcherException;
+import io.gravitee.fetcher.api.Resource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.function.BiFunction;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * The files of a folder of a GitLab repository, read one after the other from the archive of this folder while it is being downloaded.
+ * The archive must be closed once read, closing it before its end aborts the download.
+ *
+ * @author GraviteeSource Team
+ */
+public final class GitlabArchive implements AutoCloseable {
+
+    private final InputStream content;
+    private final ZipInputStream zip;
+    private final String prefix;
+    private final BiFunction<String, byte[], Resource> resourceFactory;
+
+    /**
+     * @param content the content of the zip archive.
+     * @param prefix the path, relative to the root of the repository, of the files to read. Other files are skipped.
+     * @param resourceFactory builds the resource of a file from its path, relative to the root of the repository, and its content.
+     */
+    GitlabArchive(InputStream content, String prefix, BiFunction<String, byte[], Resource> resourceFactory) {
+        this.content = content;
+        this.zip = new ZipInputStream(content);
+        this.prefix = prefix;
+        this.resourceFactory = resourceFactory;
+    }
+
+    /**
+     * Reads the next file of the archive. Once the last one has been read, the rest of the archive, its central directory, is skipped
+     * up to the end of the download so that closing the archive does not abort it.
+     *
+     * @return the next file, or {@code null} once all the files have been read.
+     */
+    public Resource next() throws FetcherException {
+        try {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                final String path = repositoryPath(entry.getName());
+                if (path != null && path.startsWith(prefix)) {
+                    return resourceFactory.apply(path, zip.readAllBytes());
+                }
+            }
+            content.transferTo(OutputStream.nullOutputStream());
+            return null;
+        } catch (IOException e) {
+            throw new FetcherException("Unable to read Gitlab archive (" + e.getMessage() + ")", e);
+        }
+    }
+
+    @Override
+    public void close() throws FetcherException {
+        try {
+            zip.close();
+        } catch (IOException e) {
+            throw new FetcherException("Unable to close Gitlab archive", e);
+        }
+    }
+
+    /**
+     * GitLab puts the files of an archive under a root folder named after the project and the ref, which is not part of their path.
+     */
+    private static String repositoryPath(String entryName) {
+        final int separator = entryName.indexOf('/');
+        return separator < 0 || separator == entryName.length() - 1 ? null : entryName.substring(separator + 1);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import org.springframework.scheduling.support.CronExpression;
+
+/**
+ * Spreads the executions of the auto fetches sharing the same cron expression over a short time after each of its executions, so that
+ * all the fetchers of a fleet configured with the same cron do not call GitLab in the same second.
+ *
+ * <p>Each fetcher is given a fixed offset, derived from a hash of what it fetches and lower than the maximum jitter: it is always
+ * executed this long after the times of the cron expression, which keeps the time between two of its executions the one of the cron
+ * expression, even when they are irregular.</p>
+ *
+ * @author GraviteeSource Team
+ */
+final class GitlabAutoFetchSchedule {
+
+    private GitlabAutoFetchSchedule() {}
+
+    /**
+     * @param seed identifies what is fetched, e.g. the project and path of the file.
+     * @param maxJitter the maximum offset, in milliseconds, or {@code 0} to run at the exact times of the cron expression.
+     * @return the next execution after the given time, or {@code null} if the cron expression never matches again.
+     */
+    static ZonedDateTime next(CronExpression cron, ZonedDateTime after, String seed, long maxJitter) {
+        if (maxJitter <= 0) {
+            return cron.next(after);
+        }
+
+        final long offset = Math.floorMod(mix(seed.hashCode()), maxJitter);
+        final ZonedDateTime base = cron.next(after.minus(Duration.ofMillis(offset)));
+        return base != null ? base.plus(Duration.ofMillis(offset)) : null;
+    }
+
+    /**
+     * Spreads close hash codes, e.g. the ones of paths only differing by their last character, over the whole range of longs.
+     */
+    private static long mix(long value) {
+        long z = value * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.Shareable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Content-addressed cache of the decoded blobs fetched from GitLab.
+ *
+ * <p>A blob id identifies an immutable content, so a blob shared by several pages (same GitLab instance and project) is downloaded
+ * and decoded only once. The cache is bounded by the total size of the blobs it holds, the least recently used ones are evicted
+ * first when the budget is exceeded.</p>
+ *
+ * @author GraviteeSource Team
+ */
+final class GitlabBlobCache implements Shareable {
+
+    private static final String SHARED_DATA_NAME = "blob-cache";
+
+    private final long maxSize;
+    private final LinkedHashMap<Key, byte[]> blobs = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private long size;
+
+    private GitlabBlobCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @param metrics the metrics the hits and misses of the cache are published to, when it is created.
+     */
+    static GitlabBlobCache get(Vertx vertx, long maxSize, GitlabMetrics metrics) {
+        return GitlabSharedData.get(vertx, SHARED_DATA_NAME, () -> {
+            final GitlabBlobCache cache = new GitlabBlobCache(maxSize);
+            metrics.blobCache(cache);
+            return cache;
+        });
+    }
+
+    byte[] get(Key key) {
+        final byte[] blob;
+        synchronized (this) {
+            blob = blobs.get(key);
+        }
+        if (blob != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return blob;
+    }
+
+    synchronized void put(Key key, byte[] blob) {
+        if (blob == null || blob.length > maxSize) {
+            return;
+        }
+
+        final byte[] previous = blobs.put(key, blob);
+        size += blob.length - (previous != null ? previous.length : 0);
+
+        final Iterator<Map.Entry<Key, byte[]>> eldest = blobs.entrySet().iterator();
+        while (size > maxSize && eldest.hasNext()) {
+            size -= eldest.next().getValue().length;
+            eldest.remove();
+        }
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    synchronized long size() {
+        return size;
+    }
+
+    /**
+     * A blob of a given project, on a given GitLab instance.
+     */
+    record Key(String gitlabUrl, String project, String blobId) {}
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.vertx.core.buffer.Buffer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses the blobs of a project returned by a {@code project.repository.blobs} query of the GitLab GraphQL API with a streaming parser,
+ * without building the tree of the whole response.
+ *
+ * @author GraviteeSource Team
+ */
+final class GitlabBlobsParser {
+
+    private GitlabBlobsParser() {}
+
+    /**
+     * @return the returned blobs, the paths which do not exist at the requested ref being missing.
+     * @throws IOException if the body is not a valid JSON object or does not hold the blobs of the project, e.g. when GitLab returned
+     * errors or the project does not exist.
+     */
+    static List<Blob> parse(ObjectMapper mapper, Buffer body) throws IOException {
+        List<Blob> blobs = null;
+        String error = null;
+
+        try (JsonParser parser = mapper.getFactory().createParser(new BufferInputStream(body))) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("GitLab GraphQL response is not a JSON object");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String name = parser.currentName();
+                final JsonToken value = parser.nextToken();
+                if ("data".equals(name) && value == JsonToken.START_OBJECT) {
+                    blobs = field(parser, "project", project ->
+                        field(project, "repository", repository -> field(repository, "blobs", nodes()))
+                    );
+                } else if ("errors".equals(name) && value == JsonToken.START_ARRAY) {
+                    error = firstErrorMessage(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        if (blobs == null) {
+            throw new IOException(
+                error != null
+                    ? "GitLab GraphQL API returned an error: " + error
+                    : "GitLab GraphQL API did not return the blobs of the project"
+            );
+        }
+        return blobs;
+    }
+
+    /**
+     * Reads the given field of the object the parser is in, skipping the other ones.
+     *
+     * @return what has been read from the field, {@code null} if it is missing or null.
+     */
+    private static <T> T field(JsonParser parser, String field, ValueReader<T> reader) throws IOException {
+        T result = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.currentName();
+            final JsonToken value = parser.nextToken();
+            if (field.equals(name) && value == JsonToken.START_OBJECT) {
+                result = reader.read(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return result;
+    }
+
+    private static ValueReader<List<Blob>> nodes() {
+        return parser -> {
+            List<Blob> blobs = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String name = parser.currentName();
+                final JsonToken value = parser.nextToken();
+                if ("nodes".equals(name) && value == JsonToken.START_ARRAY) {
+                    blobs = new ArrayList<>();
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        blobs.add(blob(parser));
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return blobs;
+        };
+    }
+
+    private static Blob blob(JsonParser parser) throws IOException {
+        String path = null;
+        String name = null;
+        String oid = null;
+        long size = -1;
+        String content = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.currentName();
+            final JsonToken value = parser.nextToken();
+            switch (field) {
+                case "path" -> path = parser.getValueAsString();
+                case "name" -> name = parser.getValueAsString();
+                case "oid" -> oid = parser.getValueAsString();
+                // GitLab returns sizes as strings
+                case "size" -> size = parser.getValueAsLong(-1);
+                case "rawTextBlob" -> content = value == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+                default -> parser.skipChildren();
+            }
+        }
+
+        return new Blob(path, name, oid, size, content);
+    }
+
+    private static String firstErrorMessage(JsonParser parser) throws IOException {
+        String message = null;
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String name = parser.currentName();
+                parser.nextToken();
+                if ("message".equals(name) && message == null) {
+                    message = parser.getValueAsString();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return message;
+    }
+
+    @FunctionalInterface
+    private interface ValueReader<T> {
+        /**
+         * Reads the value the parser is at, up to its end.
+         */
+        T read(JsonParser parser) throws IOException;
+    }
+
+    /**
+     * @param size the size of the blob in bytes, {@code -1} if unknown.
+     * @param content the content of the blob, {@code null} when GitLab does not return it as text, e.g. for binary files.
+     */
+    record Blob(String path, String name, String oid, long size, String content) {}
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+/**
+ * A file of a folder which changed between two commits.
+ *
+ * @param type how the file changed.
+ * @param path the path of the file, in the same form as the ones returned by {@link GitlabFetcher#files()}. For a deleted file, the
+ * path it had before being deleted.
+ * @param previousPath the path the file had before being renamed, {@code null} for other types of changes.
+ * @author GraviteeSource Team
+ */
+public record GitlabChange(Type type, String path, String previousPath) {
+    public enum Type {
+        ADDED,
+        MODIFIED,
+        DELETED,
+        RENAMED,
+    }
+}
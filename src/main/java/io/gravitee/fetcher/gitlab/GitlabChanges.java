@@ -0,0 +1,28 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import java.util.List;
+
+/**
+ * The files of a folder which changed between two commits, as returned by {@link GitlabFetcher#changes(String)}.
+ *
+ * @param fromCommit the commit the changes are computed from.
+ * @param toCommit the commit the changes are computed to, from which the next changes should be computed.
+ * @param changes the changed files.
+ * @author GraviteeSource Team
+ */
+public record GitlabChanges(String fromCommit, String toCommit, List<GitlabChange> changes) {}
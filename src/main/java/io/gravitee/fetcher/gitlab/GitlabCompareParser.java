@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.vertx.core.buffer.Buffer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses the comparison of two commits returned by the GitLab {@code /repository/compare} endpoint with a streaming parser, only
+ * keeping the paths of the changed files: the content of the diffs, which makes most of the response, is skipped.
+ *
+ * @author GraviteeSource Team
+ */
+final class GitlabCompareParser {
+
+    private GitlabCompareParser() {}
+
+    /**
+     * @throws IOException if the body is not a valid JSON object
+     */
+    static Comparison parse(ObjectMapper mapper, Buffer body) throws IOException {
+        String toCommit = null;
+        boolean timedOut = false;
+        final List<Diff> diffs = new ArrayList<>();
+
+        try (JsonParser parser = mapper.getFactory().createParser(new BufferInputStream(body))) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("GitLab comparison response is not a JSON object");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String name = parser.currentName();
+                final JsonToken value = parser.nextToken();
+                if ("commit".equals(name) && value == JsonToken.START_OBJECT) {
+                    toCommit = commitId(parser);
+                } else if ("diffs".equals(name) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        diffs.add(diff(parser));
+                    }
+                } else if ("compare_timeout".equals(name)) {
+                    timedOut = value == JsonToken.VALUE_TRUE;
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        return new Comparison(toCommit, timedOut, diffs);
+    }
+
+    private static String commitId(JsonParser parser) throws IOException {
+        String id = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.currentName();
+            parser.nextToken();
+            if ("id".equals(name)) {
+                id = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return id;
+    }
+
+    private static Diff diff(JsonParser parser) throws IOException {
+        String oldPath = null;
+        String newPath = null;
+        boolean newFile = false;
+        boolean renamedFile = false;
+        boolean deletedFile = false;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.currentName();
+            final JsonToken value = parser.nextToken();
+            switch (name) {
+                case "old_path" -> oldPath = parser.getValueAsString();
+                case "new_path" -> newPath = parser.getValueAsString();
+                case "new_file" -> newFile = value == JsonToken.VALUE_TRUE;
+                case "renamed_file" -> renamedFile = value == JsonToken.VALUE_TRUE;
+                case "deleted_file" -> deletedFile = value == JsonToken.VALUE_TRUE;
+                // The diff itself is not needed and is left undecoded
+                default -> parser.skipChildren();
+            }
+        }
+
+        return new Diff(oldPath, newPath, newFile, renamedFile, deletedFile);
+    }
+
+    /**
+     * @param toCommit the id of the commit compared to.
+     * @param timedOut whether GitLab gave up computing the comparison, the diffs being incomplete.
+     */
+    record Comparison(String toCommit, boolean timedOut, List<Diff> diffs) {}
+
+    record Diff(String oldPath, String newPath, boolean newFile, boolean renamedFile, boolean deletedFile) {}
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import io.vertx.core.buffer.Buffer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decodes a {@code gzip} or {@code deflate} encoded response body.
+ *
+ * @author GraviteeSource Team
+ */
+final class GitlabContentDecoder {
+
+    /**
+     * The value of the {@code Accept-Encoding} header asking GitLab for an encoded response.
+     */
+    static final String ACCEPTED_ENCODINGS = "gzip, deflate";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private GitlabContentDecoder() {}
+
+    /**
+     * Decodes the given input stream if it is encoded, while it is being read.
+     */
+    static InputStream decode(InputStream content, String contentEncoding) throws IOException {
+        if (contentEncoding == null) {
+            return content;
+        }
+        return switch (contentEncoding.trim().toLowerCase(Locale.ROOT)) {
+            case "gzip", "x-gzip" -> new GZIPInputStream(content, BUFFER_SIZE);
+            case "deflate" -> new InflaterInputStream(content);
+            default -> content;
+        };
+    }
+
+    /**
+     * Decodes the given body if it is encoded.
+     *
+     * @throws IOException if the body is truncated or corrupted.
+     */
+    static Buffer decode(Buffer body, String contentEncoding) throws IOException {
+        if (body.length() == 0) {
+            // No body at all, e.g. for a HEAD request
+            return body;
+        }
+        final InputStream content = new BufferInputStream(body);
+        final InputStream decoded = decode(content, contentEncoding);
+        if (decoded == content) {
+            return body;
+        }
+        try (decoded) {
+            return Buffer.buffer(decoded.readAllBytes());
+        }
+    }
+}
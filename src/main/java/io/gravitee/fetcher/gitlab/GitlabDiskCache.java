@@ -0,0 +1,326 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gravitee.fetcher.api.Resource;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.Shareable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import lombok.CustomLog;
+
+/**
+ * Keeps the fetched resources on disk, so that they can be served right after a restart of the node instead of all being fetched
+ * again from GitLab at once.
+ *
+ * <p>Each resource is stored in its own file, named after a hash of its key, holding its metadata followed by its decoded content.
+ * Files are written to a temporary file first and then moved in place, so that a file is always complete. They are read through a
+ * memory mapping, the content of the served resources being read directly from the page cache.
+ * All the file operations are run out of the event loop.</p>
+ *
+ * <p>The total size of the files is bounded: once it is exceeded, the least recently used files are deleted, the files found on disk
+ * when the node starts being ordered by the time they were last written. A resource is not written again when the stored one has
+ * the same blob id.</p>
+ *
+ * @author GraviteeSource Team
+ */
+@CustomLog
+final class GitlabDiskCache implements Shareable {
+
+    private static final String SHARED_DATA_NAME = "disk-cache:";
+    private static final String FILE_EXTENSION = ".entry";
+    private static final TypeReference<Map<String, Object>> HEADER_TYPE = new TypeReference<>() {};
+
+    private final Vertx vertx;
+    private final ObjectMapper mapper;
+    private final Path directory;
+    private final long maxSize;
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+    private final Set<String> read = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The stored files by name, from the least to the most recently used, guarded by {@code this}.
+     */
+    private final LinkedHashMap<String, StoredFile> files = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+    private boolean loaded;
+
+    private GitlabDiskCache(Vertx vertx, ObjectMapper mapper, Path directory, long maxSize) {
+        this.vertx = vertx;
+        this.mapper = mapper;
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @param maxSize the maximum total size, in bytes, of the stored files.
+     */
+    static GitlabDiskCache get(Vertx vertx, ObjectMapper mapper, String directory, long maxSize) {
+        return GitlabSharedData.get(
+            vertx,
+            SHARED_DATA_NAME + directory,
+            () -> new GitlabDiskCache(vertx, mapper, Paths.get(directory), maxSize)
+        );
+    }
+
+    /**
+     * Records that the entry of the given key is being asked for. The stored entry is only meant to be served the first time, right
+     * after the node started: the next fetches of the same key go to GitLab.
+     *
+     * @return whether the entry of the key is asked for the first time since the node started.
+     */
+    boolean firstRead(String key) {
+        return read.add(key);
+    }
+
+    /**
+     * @return the stored entry, or {@code null} if there is none.
+     */
+    Future<Entry> read(String key) {
+        return vertx.executeBlocking(() -> readNow(key));
+    }
+
+    Future<Void> write(String key, Entry entry) {
+        return vertx.executeBlocking(() -> {
+            writeNow(key, entry);
+            return null;
+        });
+    }
+
+    Future<Void> remove(String key) {
+        return vertx.executeBlocking(() -> {
+            delete(fileName(key));
+            return null;
+        });
+    }
+
+    /**
+     * @return the total size, in bytes, of the stored files.
+     */
+    synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Marks the entry of the given key as being revalidated, so that it is revalidated once even when served many times meanwhile.
+     *
+     * @return {@code false} if it is already being revalidated.
+     */
+    boolean startRevalidation(String key) {
+        return revalidating.add(key);
+    }
+
+    void endRevalidation(String key) {
+        revalidating.remove(key);
+    }
+
+    /**
+     * @return the name of the file of the given key, a hash of the key so that it can be anything.
+     */
+    static String fileName(String key) {
+        try {
+            final byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash) + FILE_EXTENSION;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private Path file(String key) {
+        return directory.resolve(fileName(key));
+    }
+
+    private Entry readNow(String key) throws IOException {
+        final Path file = file(key);
+        final ByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+
+        try {
+            final int headerLength = mapped.getInt(0);
+            final byte[] header = new byte[headerLength];
+            mapped.get(Integer.BYTES, header);
+            final Map<String, Object> fields = mapper.readValue(header, HEADER_TYPE);
+            @SuppressWarnings("unchecked")
+            final Map<String, Object> metadata = (Map<String, Object>) fields.get("metadata");
+            final int contentOffset = Integer.BYTES + headerLength;
+            final ByteBuffer content = fields.get("content") == Boolean.TRUE
+                ? mapped.slice(contentOffset, mapped.capacity() - contentOffset)
+                : null;
+            final Entry entry = new Entry((String) fields.get("blobId"), metadata, content);
+            stored(file.getFileName().toString(), new StoredFile(mapped.capacity(), entry.blobId()));
+            return entry;
+        } catch (RuntimeException | IOException e) {
+            log.warn("Ignoring unreadable GitLab disk cache file '{}'", file, e);
+            delete(file.getFileName().toString());
+            return null;
+        }
+    }
+
+    private void writeNow(String key, Entry entry) throws IOException {
+        final String fileName = fileName(key);
+        synchronized (this) {
+            load();
+            final StoredFile storedFile = files.get(fileName);
+            if (storedFile != null && entry.blobId() != null && entry.blobId().equals(storedFile.blobId())) {
+                return;
+            }
+        }
+
+        Files.createDirectories(directory);
+        final Map<String, Object> fields = new HashMap<>();
+        fields.put("blobId", entry.blobId());
+        fields.put("metadata", entry.metadata());
+        fields.put("content", entry.content() != null);
+        final byte[] header = mapper.writeValueAsBytes(fields);
+
+        final Path file = file(key);
+        final Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, header.length));
+                channel.write(ByteBuffer.wrap(header));
+                if (entry.content() != null) {
+                    channel.write(entry.content().duplicate());
+                }
+            }
+            try {
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+
+        final long length = Integer.BYTES + header.length + (entry.content() != null ? entry.content().remaining() : 0);
+        stored(fileName, new StoredFile(length, entry.blobId()));
+    }
+
+    /**
+     * Records a file which has just been written or read, making it the most recently used one, and deletes the least recently used
+     * files while the total size exceeds the maximum one.
+     */
+    private synchronized void stored(String fileName, StoredFile storedFile) throws IOException {
+        load();
+        final StoredFile previous = files.put(fileName, storedFile);
+        size += storedFile.size() - (previous != null ? previous.size() : 0);
+        evict();
+    }
+
+    private synchronized void delete(String fileName) throws IOException {
+        Files.deleteIfExists(directory.resolve(fileName));
+        final StoredFile previous = files.remove(fileName);
+        if (previous != null) {
+            size -= previous.size();
+        }
+    }
+
+    private synchronized void evict() throws IOException {
+        final Iterator<Map.Entry<String, StoredFile>> iterator = files.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            final Map.Entry<String, StoredFile> eldest = iterator.next();
+            Files.deleteIfExists(directory.resolve(eldest.getKey()));
+            size -= eldest.getValue().size();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Lists the files left on disk by a previous run of the node, the oldest written being the first to be evicted.
+     */
+    private synchronized void load() throws IOException {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        final List<Path> found;
+        try (Stream<Path> listed = Files.list(directory)) {
+            found = listed.filter(file -> file.getFileName().toString().endsWith(FILE_EXTENSION)).toList();
+        }
+        final Map<Path, FileTime> lastModified = new HashMap<>();
+        for (Path file : found) {
+            try {
+                lastModified.put(file, Files.getLastModifiedTime(file));
+            } catch (NoSuchFileException e) {
+                // Deleted meanwhile
+            }
+        }
+        for (Path file : lastModified.keySet().stream().sorted(Comparator.comparing(lastModified::get)).toList()) {
+            try {
+                final long fileSize = Files.size(file);
+                files.put(file.getFileName().toString(), new StoredFile(fileSize, null));
+                size += fileSize;
+            } catch (NoSuchFileException e) {
+                // Deleted meanwhile
+            }
+        }
+        evict();
+    }
+
+    /**
+     * @param blobId the blob id of the stored resource, {@code null} until the file has been read or written by this node.
+     */
+    private record StoredFile(long size, String blobId) {}
+
+    /**
+     * A stored resource.
+     *
+     * @param blobId the id of the blob of the resource, when known, used to check whether it changed on GitLab.
+     */
+    record Entry(String blobId, Map<String, Object> metadata, ByteBuffer content) {
+        Resource toResource() {
+            final Resource resource = new Resource();
+            if (content != null) {
+                resource.setContent(new ByteBufferInputStream(content));
+            }
+            resource.setMetadata(new HashMap<>(metadata));
+            return resource;
+        }
+    }
+}
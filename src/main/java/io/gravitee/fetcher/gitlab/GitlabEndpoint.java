@@ -0,0 +1,231 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * The GitLab project and ref a configuration points to, resolved once from it: the URLs of the files, trees, archives and commits of
+ * the project are all built from the same validated, trimmed and encoded values instead of deriving them again for each call, and
+ * the calls are keyed by the same fingerprint of the token and sent to the host, port and scheme parsed once from the GitLab URL.
+ *
+ * <p>The configuration of a fetcher can be updated after its creation, an endpoint is therefore tied to the raw values it has been
+ * resolved from, see {@link #isResolvedFrom(GitlabFetcherConfiguration)}.</p>
+ *
+ * @author GraviteeSource Team
+ */
+final class GitlabEndpoint {
+
+    private static final String DEFAULT_REF = "master";
+
+    private final String gitlabUrl;
+    private final String namespace;
+    private final String project;
+    private final String branchOrTag;
+    private final String privateToken;
+
+    private final String origin;
+    private final String host;
+    private final int port;
+    private final boolean ssl;
+    private final String apiUrl;
+    private final String projectPath;
+    private final String projectUrl;
+    private final String ref;
+    private final String encodedRef;
+    private final String graphqlUrl;
+    private final String editUrlPrefix;
+    private final String credentials;
+
+    private GitlabEndpoint(URI uri, String gitlabUrl, String namespace, String project, String branchOrTag, String privateToken) {
+        this.gitlabUrl = gitlabUrl;
+        this.namespace = namespace;
+        this.project = project;
+        this.branchOrTag = branchOrTag;
+        this.privateToken = privateToken;
+
+        this.ssl = "https".equalsIgnoreCase(uri.getScheme());
+        this.host = uri.getHost();
+        this.port = uri.getPort() != -1 ? uri.getPort() : (ssl ? 443 : 80);
+        this.origin = uri.getScheme() + "://" + uri.getRawAuthority();
+        this.apiUrl = gitlabUrl.trim();
+        this.projectPath = namespace.trim() + '/' + project.trim();
+        this.projectUrl = apiUrl + "/projects/" + encode(projectPath);
+        this.ref = branchOrTag == null || branchOrTag.trim().isEmpty() ? DEFAULT_REF : branchOrTag.trim();
+        this.encodedRef = encode(ref);
+        this.graphqlUrl = graphqlUrl(apiUrl);
+
+        final String webUrl = gitlabUrl.replace("api/", "");
+        this.editUrlPrefix =
+            webUrl.substring(0, webUrl.lastIndexOf('/')) +
+            '/' +
+            namespace +
+            '/' +
+            project +
+            "/edit/" +
+            (branchOrTag == null ? DEFAULT_REF : branchOrTag) +
+            '/';
+        this.credentials = fingerprint(privateToken);
+    }
+
+    /**
+     * Resolves the endpoint of the given configuration, whose GitLab URL, namespace and project are expected to be set.
+     *
+     * @throws IllegalArgumentException if the GitLab URL is not an absolute http(s) URL.
+     */
+    static GitlabEndpoint of(GitlabFetcherConfiguration configuration) {
+        final String gitlabUrl = configuration.getGitlabUrl();
+        final URI uri = URI.create(gitlabUrl.trim());
+        if (uri.getHost() == null || !("http".equalsIgnoreCase(uri.getScheme()) || "https".equalsIgnoreCase(uri.getScheme()))) {
+            throw new IllegalArgumentException("GitLab URL '" + gitlabUrl + "' is not an absolute http(s) URL");
+        }
+        return new GitlabEndpoint(
+            uri,
+            gitlabUrl,
+            configuration.getNamespace(),
+            configuration.getProject(),
+            configuration.getBranchOrTag(),
+            configuration.getPrivateToken()
+        );
+    }
+
+    /**
+     * Whether this endpoint has been resolved from the current GitLab URL, namespace, project, ref and token of the given configuration.
+     */
+    boolean isResolvedFrom(GitlabFetcherConfiguration configuration) {
+        return (
+            Objects.equals(gitlabUrl, configuration.getGitlabUrl()) &&
+            Objects.equals(namespace, configuration.getNamespace()) &&
+            Objects.equals(project, configuration.getProject()) &&
+            Objects.equals(branchOrTag, configuration.getBranchOrTag()) &&
+            Objects.equals(privateToken, configuration.getPrivateToken())
+        );
+    }
+
+    String host() {
+        return host;
+    }
+
+    /**
+     * The port of the GitLab URL, or the default one of its scheme.
+     */
+    int port() {
+        return port;
+    }
+
+    /**
+     * Whether GitLab is called over TLS.
+     */
+    boolean ssl() {
+        return ssl;
+    }
+
+    /**
+     * @return the path and query of the given URL if it is on the host, port and scheme of this endpoint, {@code null} otherwise.
+     */
+    String pathAndQuery(String url) {
+        return url.startsWith(origin) && url.length() > origin.length() && url.charAt(origin.length()) == '/'
+            ? url.substring(origin.length())
+            : null;
+    }
+
+    /**
+     * The trimmed URL of the REST API, e.g. {@code https://gitlab.com/api/v4}.
+     */
+    String apiUrl() {
+        return apiUrl;
+    }
+
+    /**
+     * The full path of the project, {@code namespace/project}.
+     */
+    String projectPath() {
+        return projectPath;
+    }
+
+    /**
+     * The URL of the project in the REST API, identified by its encoded full path.
+     */
+    String projectUrl() {
+        return projectUrl;
+    }
+
+    /**
+     * The configured branch or tag, {@code master} when none is.
+     */
+    String ref() {
+        return ref;
+    }
+
+    String encodedRef() {
+        return encodedRef;
+    }
+
+    /**
+     * The GraphQL endpoint of the GitLab instance, next to the REST API one (e.g. {@code https://gitlab.com/api/graphql} for
+     * {@code https://gitlab.com/api/v4}).
+     */
+    String graphqlUrl() {
+        return graphqlUrl;
+    }
+
+    /**
+     * The URL the given file can be edited at in the GitLab web interface.
+     */
+    String editUrl(String filepath) {
+        return editUrlPrefix + filepath;
+    }
+
+    /**
+     * A fingerprint of the token used to call GitLab, so that what has been fetched with a token is not shared with other ones. Empty
+     * when no token is configured.
+     */
+    String credentials() {
+        return credentials;
+    }
+
+    static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String fingerprint(String token) {
+        if (token == null || token.trim().isEmpty()) {
+            return "";
+        }
+        try {
+            return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String graphqlUrl(String apiUrl) {
+        String url = apiUrl;
+        while (url.endsWith("/")) {
+            url = url.substring(0, url.length() - 1);
+        }
+        if (url.endsWith("/v4")) {
+            url = url.substring(0, url.length() - "/v4".length());
+        }
+        return url + "/graphql";
+    }
+}
@@ -17,7 +17,6 @@ package io.gravitee.fetcher.gitlab;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import io.gravitee.common.http.HttpStatusCode;
 import io.gravitee.common.utils.UUID;
 import io.gravitee.fetcher.api.FetcherConfiguration;
@@ -28,23 +27,31 @@ import io.gravitee.fetcher.api.ResourceNotFoundException;
 import io.gravitee.node.api.Node;
 import io.gravitee.node.api.utils.NodeUtils;
 import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
 import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.*;
+import io.vertx.core.net.KeyStoreOptions;
+import io.vertx.core.net.PemTrustOptions;
 import io.vertx.core.net.ProxyOptions;
 import io.vertx.core.net.ProxyType;
 import java.io.ByteArrayInputStream;
-import java.io.UnsupportedEncodingException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
-import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadLocalRandom;
 import lombok.CustomLog;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
 import org.springframework.scheduling.support.CronExpression;
 
 /**
@@ -56,9 +63,42 @@ import org.springframework.scheduling.support.CronExpression;
 public class GitlabFetcher implements FilesFetcher {
 
     private static final String HTTPS_SCHEME = "https";
+    private static final int DEFAULT_POOL_MAX_SIZE = 10;
+    private static final int DEFAULT_POOL_KEEP_ALIVE_TIMEOUT = 60;
+    private static final int DEFAULT_HTTP2_MULTIPLEXING_LIMIT = 100;
+    private static final int DEFAULT_TREE_CONCURRENCY = 4;
+    private static final int DEFAULT_BULK_CONCURRENCY = 8;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final String TOTAL_PAGES_HEADER = "X-Total-Pages";
+    private static final String NEXT_PAGE_HEADER = "X-Next-Page";
+    private static final String LINK_HEADER = "Link";
+    private static final String ETAG_HEADER = "ETag";
+    private static final String IF_NONE_MATCH_HEADER = "If-None-Match";
+    private static final String BLOB_ID_HEADER = "X-Gitlab-Blob-Id";
+    private static final String GITLAB_HEADER_PREFIX = "x-gitlab-";
+    private static final String BLOB_ID_PROPERTY_KEY = "blob_id";
+    private static final String SIZE_PROPERTY_KEY = "size";
+    private static final String PATH_PROPERTY_KEY = "path";
+    private static final String FILE_PATH_PROPERTY_KEY = "file_path";
+    private static final String FILE_NAME_PROPERTY_KEY = "file_name";
+    private static final int DEFAULT_REVALIDATION_MAX_ENTRIES = 1000;
+    private static final long DEFAULT_REVALIDATION_MAX_SIZE = 64L * 1024 * 1024;
+    private static final long DEFAULT_RATE_LIMIT_INITIAL_BACKOFF = 1000;
+    private static final long DEFAULT_RATE_LIMIT_MAX_BACKOFF = 60000;
+    private static final long DEFAULT_REF_RESOLUTION_TTL = 30000;
+    private static final long DEFAULT_PROJECT_RESOLUTION_TTL = 3600000;
+    private static final long PROJECT_RESOLUTION_FAILURE_TTL = 30000;
+    private static final long DEFAULT_DISK_CACHE_MAX_SIZE = 256L * 1024 * 1024;
+    private static final String PROJECT_NOT_FOUND_MESSAGE = "404 Project Not Found";
+    private static final int DEFAULT_GRAPHQL_BATCH_SIZE = 50;
+    private static final String BLOBS_QUERY =
+        "query($fullPath: ID!, $ref: String!, $paths: [String!]!) { project(fullPath: $fullPath) { repository { " +
+        "blobs(ref: $ref, paths: $paths) { nodes { path name oid size rawTextBlob } } } } }";
 
     private GitlabFetcherConfiguration gitlabFetcherConfiguration;
 
+    private volatile GitlabEndpoint endpoint;
+
     @Autowired
     private Vertx vertx;
 
@@ -68,6 +108,11 @@ public class GitlabFetcher implements FilesFetcher {
     @Autowired
     private Node node;
 
+    @Autowired(required = false)
+    private ApplicationContext applicationContext;
+
+    private GitlabMetrics metrics;
+
     @Value("${httpClient.timeout:10000}")
     private int httpClientTimeout;
 
@@ -98,6 +143,155 @@ public class GitlabFetcher implements FilesFetcher {
     @Value("${httpClient.proxy.https.password:#{null}}")
     private String httpClientProxyHttpsPassword;
 
+    @Value("${httpClient.pool.maxSize:10}")
+    private int httpClientPoolMaxSize;
+
+    /**
+     * Time, in seconds, after which an unused pooled connection is evicted.
+     */
+    @Value("${httpClient.pool.keepAliveTimeout:60}")
+    private int httpClientPoolKeepAliveTimeout;
+
+    /**
+     * Whether GitLab is asked for compressed responses, decoded while they are being received. Archives, which are already compressed,
+     * are never asked compressed.
+     */
+    @Value("${httpClient.compression.enabled:false}")
+    private boolean httpClientCompressionEnabled;
+
+    /**
+     * Whether HTTP/2 is offered to the GitLab hosts called over TLS, all the concurrent requests to a host then being sent over a single
+     * connection. HTTP/1.1 is used with the hosts not supporting it.
+     */
+    @Value("${httpClient.http2.enabled:false}")
+    private boolean httpClientHttp2Enabled;
+
+    /**
+     * Maximum number of concurrent requests sent over an HTTP/2 connection, further requests waiting for one of them to complete.
+     */
+    @Value("${httpClient.http2.multiplexingLimit:100}")
+    private int httpClientHttp2MultiplexingLimit;
+
+    /**
+     * Whether any certificate is accepted from GitLab hosts called over TLS when no trust store nor CA certificate is configured, in
+     * which case the name of the host is not checked either. Certificates are verified against the default authorities of the JVM
+     * when disabled.
+     */
+    @Value("${httpClient.ssl.trustAll:false}")
+    private boolean httpClientSslTrustAll;
+
+    /**
+     * Whether the certificate of a GitLab host must match its name, when certificates are verified, i.e. unless any certificate is
+     * trusted.
+     */
+    @Value("${httpClient.ssl.verifyHost:true}")
+    private boolean httpClientSslVerifyHost;
+
+    @Value("${httpClient.ssl.truststore.type:jks}")
+    private String httpClientSslTruststoreType;
+
+    @Value("${httpClient.ssl.truststore.path:#{null}}")
+    private String httpClientSslTruststorePath;
+
+    @Value("${httpClient.ssl.truststore.password:#{null}}")
+    private String httpClientSslTruststorePassword;
+
+    /**
+     * Maximum number of tree pages fetched concurrently when listing files.
+     */
+    @Value("${fetcher.gitlab.tree.concurrency:4}")
+    private int treeConcurrency;
+
+    /**
+     * Maximum number of previously fetched resources remembered for revalidation.
+     */
+    @Value("${fetcher.gitlab.revalidation.maxEntries:1000}")
+    private int revalidationMaxEntries;
+
+    /**
+     * Maximum total size, in bytes, of the contents of the resources remembered for revalidation.
+     */
+    @Value("${fetcher.gitlab.revalidation.maxSize:67108864}")
+    private long revalidationMaxSize;
+
+    /**
+     * Maximum total size, in bytes, of the decoded blobs kept in memory by the node. The cache is disabled when set to 0.
+     */
+    @Value("${fetcher.gitlab.blobCache.maxSize:0}")
+    private long blobCacheMaxSize;
+
+    /**
+     * Maximum number of files fetched concurrently by {@link #fetchAll(Collection)}.
+     */
+    @Value("${fetcher.gitlab.bulk.concurrency:8}")
+    private int bulkConcurrency;
+
+    /**
+     * Maximum number of times a request GitLab asked to retry later is retried.
+     */
+    @Value("${fetcher.gitlab.rateLimit.maxRetries:3}")
+    private int rateLimitMaxRetries;
+
+    /**
+     * Delay, in milliseconds, before the first retry of a request when GitLab did not tell when to retry. Doubled on each retry.
+     */
+    @Value("${fetcher.gitlab.rateLimit.initialBackoff:1000}")
+    private long rateLimitInitialBackoff;
+
+    /**
+     * Maximum delay, in milliseconds, before retrying a request.
+     */
+    @Value("${fetcher.gitlab.rateLimit.maxBackoff:60000}")
+    private long rateLimitMaxBackoff;
+
+    /**
+     * Maximum offset, in milliseconds, of an auto fetch after the time of its cron expression. Auto fetches run at the exact times of
+     * their cron expression when set to 0.
+     */
+    @Value("${fetcher.gitlab.autoFetch.maxJitter:60000}")
+    private long autoFetchMaxJitter;
+
+    /**
+     * Time, in milliseconds, during which the commit of a ref checked by an auto fetch is reused by the other auto fetches of the same
+     * project and ref. The check is disabled when set to 0.
+     */
+    @Value("${fetcher.gitlab.autoFetch.commitCheckTtl:10000}")
+    private long autoFetchCommitCheckTtl;
+
+    /**
+     * Time, in milliseconds, during which the commit a ref has been resolved to is reused by configurations having {@code resolveRef}
+     * enabled.
+     */
+    @Value("${fetcher.gitlab.refResolution.ttl:30000}")
+    private long refResolutionTtl;
+
+    /**
+     * Time, in milliseconds, during which the id a project has been resolved to is reused by configurations having
+     * {@code resolveProjectId} enabled.
+     */
+    @Value("${fetcher.gitlab.projectResolution.ttl:3600000}")
+    private long projectResolutionTtl;
+
+    /**
+     * Directory where the fetched resources are kept, so that they are served right after a restart of the node and then revalidated
+     * in the background. The disk cache is disabled when not set.
+     */
+    @Value("${fetcher.gitlab.diskCache.directory:#{null}}")
+    private String diskCacheDirectory;
+
+    /**
+     * Maximum total size, in bytes, of the files of the disk cache, the least recently used ones being deleted beyond it.
+     */
+    @Value("${fetcher.gitlab.diskCache.maxSize:268435456}")
+    private long diskCacheMaxSize;
+
+    /**
+     * Maximum number of files requested by a single call to the GraphQL API by configurations having {@code graphqlBatch} enabled, at
+     * most 100. Lower it if GitLab rejects the calls for being too complex.
+     */
+    @Value("${fetcher.gitlab.graphql.batchSize:50}")
+    private int graphqlBatchSize;
+
     public GitlabFetcher(GitlabFetcherConfiguration gitlabFetcherConfiguration) {
         this.gitlabFetcherConfiguration = gitlabFetcherConfiguration;
     }
@@ -110,62 +304,694 @@ public class GitlabFetcher implements FilesFetcher {
     @Override
     public Resource fetch() throws FetcherException {
         checkRequiredFields(true);
-        JsonNode jsonNode = this.request(getFetchUrl());
-
-        final Resource resource = new Resource();
-        if (jsonNode != null) {
-            final Map<String, Object> metadata = mapper.convertValue(jsonNode, Map.class);
-            final Object content = metadata.remove("content");
-            if (content != null) {
-                byte[] decodedContent = Base64.getDecoder().decode(String.valueOf(content));
-                resource.setContent(new ByteArrayInputStream(decodedContent));
-            }
-            metadata.put(EDIT_URL_PROPERTY_KEY, buildEditUrl());
-            metadata.put(PROVIDER_NAME_PROPERTY_KEY, "GitLab");
-            resource.setMetadata(metadata);
-        }
-        return resource;
+        final String filepath = gitlabFetcherConfiguration.getFilepath();
+        return await(fetchResource(filepath), filepath);
     }
 
     @Override
     public String[] files() throws FetcherException {
+        return await(prepareTreeUrl().compose(this::listFiles), gitlabFetcherConfiguration.getFilepath());
+    }
+
+    /**
+     * Asynchronous variant of {@link #fetch()}, which does not block the calling thread while GitLab is being called.
+     *
+     * @return a stage completed with the fetched resource, or completed exceptionally with the {@link FetcherException} {@link #fetch()}
+     * would have thrown.
+     */
+    public CompletionStage<Resource> fetchAsync() {
+        try {
+            checkRequiredFields(true);
+        } catch (FetcherException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return fetchResource(gitlabFetcherConfiguration.getFilepath())
+            .recover(failure -> Future.failedFuture(toFetcherFailure(failure)))
+            .toCompletionStage();
+    }
+
+    /**
+     * Asynchronous variant of {@link #files()}, which does not block the calling thread while GitLab is being called.
+     *
+     * @return a stage completed with the paths of the files, or completed exceptionally with the {@link FetcherException} {@link #files()}
+     * would have thrown.
+     */
+    public CompletionStage<String[]> filesAsync() {
+        final Future<String> url;
+        try {
+            url = prepareTreeUrl();
+        } catch (FetcherException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return url.compose(this::listFiles).recover(failure -> Future.failedFuture(toFetcherFailure(failure))).toCompletionStage();
+    }
+
+    /**
+     * Fetches several files of the project and ref of this fetcher's configuration, at most {@code fetcher.gitlab.bulk.concurrency} at
+     * the same time, over the connections shared by all the fetchers. Each file is fetched independently from the others: a file which
+     * cannot be fetched is reported in its result, it does not prevent the other ones from being fetched.
+     *
+     * @param filepaths the paths of the files to fetch, as returned by {@link #files()}.
+     * @return the result of the fetch of each file, in the order of the given paths.
+     */
+    public List<GitlabFileResult> fetchAll(Collection<String> filepaths) throws FetcherException {
         checkRequiredFields(false);
-        if ((gitlabFetcherConfiguration.getFilepath() == null || gitlabFetcherConfiguration.getFilepath().isEmpty())) {
-            gitlabFetcherConfiguration.setFilepath("/");
+        return await(fetchFiles(filepaths), gitlabFetcherConfiguration.getFilepath());
+    }
+
+    /**
+     * Asynchronous variant of {@link #fetchAll(Collection)}.
+     */
+    public CompletionStage<List<GitlabFileResult>> fetchAllAsync(Collection<String> filepaths) {
+        try {
+            checkRequiredFields(false);
+        } catch (FetcherException e) {
+            return CompletableFuture.failedFuture(e);
         }
-        JsonNode jsonNode = this.request(getTreeUrl());
-        List<String> result = new ArrayList<>();
-        if (jsonNode != null && jsonNode.isArray()) {
-            ArrayNode tree = (ArrayNode) jsonNode;
-            Iterator<JsonNode> elements = tree.elements();
-            while (elements.hasNext()) {
-                JsonNode elt = elements.next();
-                String type = elt.get("type").asText();
-                String path = elt.get("path").asText();
-                if ("blob".equals(type)) {
-                    result.add("/" + path);
-                }
-            }
+        return fetchFiles(filepaths).toCompletionStage();
+    }
+
+    /**
+     * Downloads the archive of the folder of this fetcher's configuration in a single call, instead of one call per file. The archive is
+     * read while it is being downloaded, each of its files being returned as a {@link Resource} having the same {@code path} as the one
+     * returned by {@link #files()}. Only available with the v4 API.
+     *
+     * @return the archive, which must be closed once read.
+     */
+    public GitlabArchive archive() throws FetcherException {
+        final Future<String> url = prepareArchiveUrl();
+        final String filepath = gitlabFetcherConfiguration.getFilepath();
+        final StreamedResponse response = await(
+            url.compose(archiveUrl -> openStream(GitlabRequest.get(GitlabRequest.ARCHIVE_OPERATION, archiveUrl, filepath))),
+            filepath
+        );
+        return new GitlabArchive(response.content(), configuredFolderPrefix(), this::toArchiveResource);
+    }
+
+    /**
+     * Lists the entries of the folder of this fetcher's configuration, files and sub folders, with a constant memory usage whatever the
+     * size of the folder: the entries are read one after the other while the pages listing them are being downloaded, instead of being
+     * collected like {@link #files()} does.
+     *
+     * @return the entries of the folder, which must be closed once read.
+     */
+    public GitlabTree tree() throws FetcherException {
+        final String firstPageUrl = await(prepareTreeUrl(), gitlabFetcherConfiguration.getFilepath());
+        return new GitlabTree(mapper, firstPageUrl, pageUrl -> openTreePage(firstPageUrl, pageUrl));
+    }
+
+    /**
+     * Lists the files of the folder of this fetcher's configuration which changed since the given commit, from a single comparison of
+     * this commit with the configured ref, instead of listing the whole folder again. A file moved into or out of the folder is
+     * reported as added or deleted.
+     *
+     * @param fromCommit the commit the folder has last been synchronized from, usually the {@link GitlabChanges#toCommit()} of the
+     * previous call.
+     * @return the changed files, along with the commit they have been compared to.
+     */
+    public GitlabChanges changes(String fromCommit) throws FetcherException {
+        if (fromCommit == null || fromCommit.trim().isEmpty()) {
+            throw new FetcherException("The commit to compute the changes from is missing", null);
         }
-        return result.toArray(new String[0]);
+        checkRequiredFields(false);
+        final String from = fromCommit.trim();
+        final String filepath = gitlabFetcherConfiguration.getFilepath();
+        return await(
+            pinnedUrl(ref -> getCompareUrl(from, ref))
+                .compose(url -> fetchContent(GitlabRequest.get(GitlabRequest.COMPARE_OPERATION, url, filepath)))
+                .compose(response -> GitlabFutures.attempt(() -> toChanges(from, GitlabCompareParser.parse(mapper, response.body())))),
+            filepath
+        );
     }
 
-    private String buildEditUrl() throws FetcherException {
-        checkRequiredFields(true);
-        final String gitlabUrl = gitlabFetcherConfiguration.getGitlabUrl().replace("api/", "");
-        return (
-            gitlabUrl.substring(0, gitlabUrl.lastIndexOf('/')) +
+    private Future<List<GitlabFileResult>> fetchFiles(Collection<String> filepaths) {
+        final List<String> paths = new ArrayList<>(filepaths);
+        if (!isGraphqlBatchMode()) {
+            return fetchFilesOneByOne(paths);
+        }
+
+        final int batchSize = graphqlBatchSize > 0 ? Math.min(graphqlBatchSize, MAX_PAGE_SIZE) : DEFAULT_GRAPHQL_BATCH_SIZE;
+        final List<List<String>> batches = new ArrayList<>();
+        for (int start = 0; start < paths.size(); start += batchSize) {
+            batches.add(paths.subList(start, Math.min(paths.size(), start + batchSize)));
+        }
+        return pinnedRef()
+            .compose(ref -> GitlabFutures.mapWithConcurrency(batches, bulkConcurrency(), batch -> fetchBatch(batch, ref)))
+            .map(results -> results.stream().flatMap(List::stream).toList())
+            .recover(failure -> fetchFilesOneByOne(paths));
+    }
+
+    private Future<List<GitlabFileResult>> fetchFilesOneByOne(List<String> filepaths) {
+        return GitlabFutures.mapWithConcurrency(filepaths, bulkConcurrency(), this::fetchFileResult);
+    }
+
+    private Future<GitlabFileResult> fetchFileResult(String filepath) {
+        return fetchResource(filepath)
+            .map(resource -> GitlabFileResult.success(filepath, resource))
+            .otherwise(failure -> GitlabFileResult.failure(filepath, toFetcherException(failure)));
+    }
+
+    private int bulkConcurrency() {
+        return bulkConcurrency > 0 ? bulkConcurrency : DEFAULT_BULK_CONCURRENCY;
+    }
+
+    /**
+     * Fetches a batch of files with a single call to the GraphQL API. The files GitLab does not return as text, such as binary or too
+     * large files, are fetched one by one with the REST API, as are all the files of the batch when the GraphQL call fails.
+     */
+    private Future<List<GitlabFileResult>> fetchBatch(List<String> filepaths, String ref) {
+        final List<String> paths = filepaths.stream().map(GitlabFetcher::repositoryPath).toList();
+        final String folder = gitlabFetcherConfiguration.getFilepath();
+        return GitlabFutures.attempt(() ->
+            GitlabRequest.postJson(GitlabRequest.GRAPHQL_OPERATION, getGraphqlUrl(), folder, blobsQuery(ref, paths))
+        )
+            .compose(this::fetchContent)
+            .compose(response -> GitlabFutures.attempt(() -> GitlabBlobsParser.parse(mapper, response.body())))
+            .compose(blobs -> {
+                final Map<String, GitlabBlobsParser.Blob> blobsByPath = new HashMap<>();
+                blobs.forEach(blob -> blobsByPath.put(blob.path(), blob));
+                return GitlabFutures.mapWithConcurrency(filepaths, bulkConcurrency(), filepath -> {
+                    final GitlabBlobsParser.Blob blob = blobsByPath.get(repositoryPath(filepath));
+                    if (blob == null) {
+                        final String message = buildNotFoundMessage(filepath, getGraphqlUrl());
+                        return Future.succeededFuture(GitlabFileResult.failure(filepath, new ResourceNotFoundException(message, null)));
+                    }
+                    final byte[] content = blob.content() != null ? blob.content().getBytes(StandardCharsets.UTF_8) : null;
+                    if (content == null || (blob.size() >= 0 && content.length != blob.size())) {
+                        return fetchFileResult(filepath);
+                    }
+                    return Future.succeededFuture(GitlabFileResult.success(filepath, toBlobResource(filepath, ref, blob, content)));
+                });
+            })
+            .recover(failure -> {
+                log.debug("Unable to fetch {} files with the GitLab GraphQL API, fetching them one by one", filepaths.size(), failure);
+                return fetchFilesOneByOne(filepaths);
+            });
+    }
+
+    private String blobsQuery(String ref, List<String> paths) throws IOException {
+        final Map<String, Object> variables = new HashMap<>();
+        variables.put("fullPath", endpoint().projectPath());
+        variables.put("ref", ref);
+        variables.put("paths", paths);
+        return mapper.writeValueAsString(Map.of("query", BLOBS_QUERY, "variables", variables));
+    }
+
+    private Resource toBlobResource(String filepath, String ref, GitlabBlobsParser.Blob blob, byte[] content) {
+        final Map<String, Object> metadata = new HashMap<>();
+        metadata.put(FILE_NAME_PROPERTY_KEY, blob.name());
+        metadata.put(FILE_PATH_PROPERTY_KEY, blob.path());
+        metadata.put(SIZE_PROPERTY_KEY, (long) content.length);
+        metadata.put(BLOB_ID_PROPERTY_KEY, blob.oid());
+        metadata.put("ref", ref);
+        return toResource(filepath, metadata, new ByteArrayInputStream(content));
+    }
+
+    /**
+     * The path of a file relative to the root of the repository, as expected by the GraphQL API.
+     */
+    private static String repositoryPath(String filepath) {
+        String path = filepath.trim();
+        while (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+        return path;
+    }
+
+    private boolean isGraphqlBatchMode() {
+        return gitlabFetcherConfiguration.isGraphqlBatch() && gitlabFetcherConfiguration.getApiVersion() == ApiVersion.V4;
+    }
+
+    /**
+     * Computes the next time the auto fetch of this fetcher's configuration should run. Rather than at the exact times of the cron
+     * expression, the fetch is run at a fixed offset after them, derived from the project and path it fetches and smaller than
+     * {@code fetcher.gitlab.autoFetch.maxJitter}, so that the fetchers sharing the same cron expression are spread over time instead
+     * of all calling GitLab at once.
+     *
+     * @param after the time after which the next execution should happen, usually the current time.
+     * @return the time of the next auto fetch, or {@code null} if the cron expression never matches again.
+     */
+    public ZonedDateTime nextAutoFetch(ZonedDateTime after) throws FetcherException {
+        final CronExpression cron;
+        try {
+            cron = CronExpression.parse(gitlabFetcherConfiguration.getFetchCron());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new FetcherException("Cron expression is invalid", e);
+        }
+        final String seed =
+            gitlabFetcherConfiguration.getGitlabUrl() +
             '/' +
             gitlabFetcherConfiguration.getNamespace() +
             '/' +
             gitlabFetcherConfiguration.getProject() +
-            "/edit/" +
-            (gitlabFetcherConfiguration.getBranchOrTag() == null ? "master" : gitlabFetcherConfiguration.getBranchOrTag()) +
-            '/' +
-            gitlabFetcherConfiguration.getFilepath()
+            ':' +
+            gitlabFetcherConfiguration.getFilepath();
+        return GitlabAutoFetchSchedule.next(cron, after, seed, autoFetchMaxJitter);
+    }
+
+    /**
+     * Fetches the given file at the configured ref or, when {@code resolveRef} is enabled, at the commit it has been resolved to.
+     */
+    private Future<Resource> fetchResource(String filepath) {
+        if (!gitlabFetcherConfiguration.isResolveRef()) {
+            return resolveProjectId()
+                .compose(v -> GitlabFutures.attempt(() -> getFetchUrl(filepath)))
+                .compose(url -> fetchResource(filepath, url));
+        }
+        return pinnedUrl(ref -> getFetchUrl(filepath, ref)).compose(url -> fetchFile(filepath, url, true));
+    }
+
+    /**
+     * Builds a url at the configured ref or, when {@code resolveRef} is enabled, at the commit it points to. The commit is resolved
+     * once for all the calls made within {@code fetcher.gitlab.refResolution.ttl}, so that all the files of a sync are read from the
+     * same commit, even if a push happens meanwhile.
+     */
+    private Future<String> pinnedUrl(UrlBuilder urlBuilder) {
+        return resolveProjectId().compose(v -> pinnedRef()).compose(ref -> GitlabFutures.attempt(() -> urlBuilder.build(ref)));
+    }
+
+    /**
+     * When {@code resolveProjectId} is enabled, makes sure the id of the project is known before the urls of its calls are built. The
+     * id is resolved once for all the calls made within {@code fetcher.gitlab.projectResolution.ttl}; a project whose id cannot be
+     * resolved is still addressed by its full path, without trying to resolve it again for a short time.
+     */
+    private Future<Void> resolveProjectId() {
+        if (!gitlabFetcherConfiguration.isResolveProjectId()) {
+            return Future.succeededFuture();
+        }
+        final GitlabEndpoint endpoint = endpoint();
+        final String filepath = gitlabFetcherConfiguration.getFilepath();
+        final long ttl = projectResolutionTtl > 0 ? projectResolutionTtl : DEFAULT_PROJECT_RESOLUTION_TTL;
+        return GitlabProjectResolver.get(vertx)
+            .resolve(projectKey(), ttl, Math.min(ttl, PROJECT_RESOLUTION_FAILURE_TTL), () ->
+                fetchContent(GitlabRequest.get(GitlabRequest.PROJECT_OPERATION, endpoint.projectUrl(), filepath)).compose(response ->
+                    GitlabFutures.attempt(() -> readProjectId(response.body()))
+                )
+            )
+            .<Void>mapEmpty()
+            .otherwise(failure -> {
+                log.debug("Unable to resolve the id of GitLab project '{}', addressing it by its path", endpoint.projectPath(), failure);
+                return null;
+            });
+    }
+
+    private String readProjectId(Buffer body) throws IOException {
+        final JsonNode id = body != null && body.length() > 0 ? mapper.readTree(new BufferInputStream(body)).path("id") : null;
+        if (id == null || !id.canConvertToLong()) {
+            throw new IOException("GitLab did not return the id of project '" + endpoint().projectPath() + "'");
+        }
+        return id.asText();
+    }
+
+    /**
+     * The url of the project in the REST API: by its id when it has been resolved, by its full path otherwise.
+     */
+    private String projectUrl() {
+        if (gitlabFetcherConfiguration.isResolveProjectId()) {
+            final String projectId = GitlabProjectResolver.get(vertx).resolved(projectKey());
+            if (projectId != null) {
+                return endpoint().apiUrl() + "/projects/" + projectId;
+            }
+        }
+        return endpoint().projectUrl();
+    }
+
+    /**
+     * @return the resolved id of the project the given url addresses the project by, {@code null} if it addresses it by its path.
+     */
+    private String addressedProjectId(String url) {
+        if (!gitlabFetcherConfiguration.isResolveProjectId()) {
+            return null;
+        }
+        final String projectId = GitlabProjectResolver.get(vertx).resolved(projectKey());
+        return projectId != null && url.startsWith(endpoint().apiUrl() + "/projects/" + projectId + "/") ? projectId : null;
+    }
+
+    /**
+     * Forgets the id of the project once GitLab reports that the project addressed by this id does not exist, it may have been deleted
+     * and another one created with the same path. A file or folder which does not exist in the project keeps the id.
+     */
+    private <T> Future<T> projectNotFound(GitlabRequest request, HttpClientResponse response, String projectId, Throwable notFound) {
+        return readBody(request, response)
+            .otherwiseEmpty()
+            .compose(body -> {
+                if (body != null && body.toString(StandardCharsets.UTF_8).contains(PROJECT_NOT_FOUND_MESSAGE)) {
+                    log.debug("GitLab project '{}' not found by its id {}, resolving it again", endpoint().projectPath(), projectId);
+                    GitlabProjectResolver.get(vertx).invalidate(projectKey(), projectId);
+                }
+                return Future.failedFuture(notFound);
+            });
+    }
+
+    private GitlabProjectResolver.Key projectKey() {
+        return new GitlabProjectResolver.Key(endpoint().apiUrl(), endpoint().projectPath(), credentialsFingerprint());
+    }
+
+    /**
+     * The configured ref or, when {@code resolveRef} is enabled, the commit it points to.
+     */
+    private Future<String> pinnedRef() {
+        if (!gitlabFetcherConfiguration.isResolveRef()) {
+            return Future.succeededFuture(configuredRef());
+        }
+        final long ttl = refResolutionTtl > 0 ? refResolutionTtl : DEFAULT_REF_RESOLUTION_TTL;
+        return resolveRef(GitlabRefResolver.get(vertx), ttl);
+    }
+
+    /**
+     * For auto fetched configurations, first checks the commit the ref points to, this check being shared by all the fetchers of the
+     * node polling the same project and ref at the same time: the file is only fetched again when the ref moved since its last fetch.
+     */
+    private Future<Resource> fetchResource(String filepath, String url) {
+        if (!isCommitCheckEnabled()) {
+            return fetchFile(filepath, url, false);
+        }
+
+        return resolveRef(GitlabRefResolver.commitChecks(vertx), autoFetchCommitCheckTtl)
+            .otherwise(failure -> {
+                log.debug("Unable to resolve the commit of '{}', fetching '{}' anyway", gitlabFetcherConfiguration.getBranchOrTag(), url);
+                return null;
+            })
+            .compose(commitId -> {
+                if (commitId == null) {
+                    return fetchFile(filepath, url, false);
+                }
+                final GitlabRevalidationStore.Entry previous = revalidationStore().get(url);
+                if (previous != null && commitId.equals(previous.commitId())) {
+                    log.debug("Ref of GitLab content '{}' did not move, serving the previously fetched one", url);
+                    return Future.succeededFuture(previous.toResource());
+                }
+                return fetchFile(filepath, url, false).onSuccess(resource -> revalidationStore().markCommit(url, commitId));
+            });
+    }
+
+    private boolean isCommitCheckEnabled() {
+        return autoFetchCommitCheckTtl > 0 && gitlabFetcherConfiguration.isAutoFetch() && gitlabFetcherConfiguration.isRevalidate();
+    }
+
+    /**
+     * Resolves the commit the configured ref points to, sharing the resolution with the other fetchers of the node using the same
+     * resolver for the given time.
+     */
+    private Future<String> resolveRef(GitlabRefResolver resolver, long ttl) {
+        final String filepath = gitlabFetcherConfiguration.getFilepath();
+        return GitlabFutures.attempt(this::getCommitUrl).compose(url ->
+            resolver.resolve(
+                new GitlabRefResolver.Key(
+                    endpoint().apiUrl(),
+                    endpoint().projectPath(),
+                    configuredRef(),
+                    credentialsFingerprint()
+                ),
+                ttl,
+                () ->
+                    fetchContent(GitlabRequest.get(GitlabRequest.COMMIT_OPERATION, url, filepath)).compose(response ->
+                        GitlabFutures.attempt(() -> readCommitId(response.body()))
+                    )
+            )
+        );
+    }
+
+    private String readCommitId(Buffer body) throws IOException {
+        final String commitId = body != null && body.length() > 0
+            ? mapper.readTree(new BufferInputStream(body)).path("id").asText(null)
+            : null;
+        if (commitId == null) {
+            throw new IOException("GitLab did not return the id of the commit of '" + gitlabFetcherConfiguration.getBranchOrTag() + "'");
+        }
+        return commitId;
+    }
+
+    /**
+     * A fingerprint of the token used to call GitLab, so that what has been fetched with a token is not shared with other ones.
+     */
+    private String credentialsFingerprint() {
+        return endpoint().credentials();
+    }
+
+    /**
+     * @param immutable whether the url is pinned to a commit, its content never changing: a previously fetched resource is then
+     * served without being revalidated.
+     */
+    private Future<Resource> fetchFile(String filepath, String url, boolean immutable) {
+        final GitlabRevalidationStore.Entry previous = gitlabFetcherConfiguration.isRevalidate() ? revalidationStore().get(url) : null;
+        if (immutable && previous != null) {
+            log.debug("GitLab content '{}' is pinned to a commit, serving the previously fetched one", url);
+            return Future.succeededFuture(previous.toResource());
+        }
+        if (previous != null || !isDiskCacheEnabled()) {
+            return fetchFromGitlab(filepath, url, previous);
+        }
+
+        // The disk only serves the first fetch of a url after a restart, the next ones go to GitLab
+        final String diskCacheKey = diskCacheKey(url);
+        if (!diskCache().firstRead(diskCacheKey)) {
+            return fetchFromGitlab(filepath, url, null);
+        }
+        return diskCache()
+            .read(diskCacheKey)
+            .otherwise(failure -> {
+                log.warn("Unable to read GitLab content '{}' from the disk cache", url, failure);
+                return null;
+            })
+            .compose(stored -> {
+                if (stored == null) {
+                    return fetchFromGitlab(filepath, url, null);
+                }
+                log.debug("GitLab content '{}' served from the disk cache", url);
+                if (!immutable) {
+                    revalidateInBackground(filepath, url, diskCacheKey, stored.blobId());
+                }
+                return Future.succeededFuture(stored.toResource());
+            });
+    }
+
+    private Future<Resource> fetchFromGitlab(String filepath, String url, GitlabRevalidationStore.Entry previous) {
+        final Future<MultiMap> fileHeaders = (previous != null && previous.blobId() != null) || isBlobCacheEnabled()
+            ? fetchFileHeaders(filepath, url)
+            : Future.succeededFuture();
+
+        return fileHeaders.compose(headers -> {
+            final String blobId = headers != null ? headers.get(BLOB_ID_HEADER) : null;
+
+            if (previous != null && blobId != null && blobId.equals(previous.blobId())) {
+                log.debug("GitLab content '{}' did not change, serving the previously fetched one", url);
+                return Future.succeededFuture(previous.toResource());
+            }
+
+            if (blobId != null && isBlobCacheEnabled()) {
+                final byte[] cachedContent = blobCache().get(blobCacheKey(blobId));
+                if (cachedContent != null) {
+                    log.debug("GitLab blob '{}' of '{}' served from cache", blobId, url);
+                    return GitlabFutures.attempt(() -> toResource(filepath, url, metadataFromHeaders(headers), cachedContent, null));
+                }
+            }
+
+            return download(filepath, url, previous);
+        });
+    }
+
+    /**
+     * Checks whether a file served from the disk cache changed on GitLab, downloading it again, and so updating the disk cache, if it
+     * did. The file is removed from the disk cache when it no longer exists.
+     */
+    private void revalidateInBackground(String filepath, String url, String diskCacheKey, String blobId) {
+        if (!diskCache().startRevalidation(diskCacheKey)) {
+            return;
+        }
+        fetchFileHeaders(filepath, url)
+            .compose(headers -> {
+                final String currentBlobId = headers != null ? headers.get(BLOB_ID_HEADER) : null;
+                if (currentBlobId != null && currentBlobId.equals(blobId)) {
+                    return Future.succeededFuture();
+                }
+                return download(filepath, url, null).mapEmpty();
+            })
+            .onFailure(failure -> {
+                if (failure instanceof ResourceNotFoundException) {
+                    diskCache().remove(diskCacheKey);
+                } else {
+                    log.debug("Unable to revalidate GitLab content '{}' served from the disk cache", url, failure);
+                }
+            })
+            .onComplete(ignored -> diskCache().endRevalidation(diskCacheKey));
+    }
+
+    private Future<Resource> download(String filepath, String url, GitlabRevalidationStore.Entry previous) {
+        GitlabRequest request = GitlabRequest.get(GitlabRequest.FETCH_OPERATION, url, filepath);
+        if (previous != null && previous.etag() != null) {
+            request = request.withHeader(IF_NONE_MATCH_HEADER, previous.etag());
+        }
+
+        return fetchContent(request).compose(response ->
+            GitlabFutures.attempt(() -> {
+                if (response.isNotModified() && previous != null) {
+                    return previous.toResource();
+                }
+
+                final GitlabFileParser.GitlabFile file;
+                if (isRawMode()) {
+                    // The body is the content itself, it is streamed to the resource as is
+                    file = new GitlabFileParser.GitlabFile(metadataFromHeaders(response.headers()), new BufferInputStream(response.body()));
+                } else if (response.isEmpty()) {
+                    log.warn("Something goes wrong, Gitlab responds with a status 200 but the content is empty.");
+                    return new Resource();
+                } else {
+                    file = GitlabFileParser.parse(mapper, response.body());
+                }
+                if (!gitlabFetcherConfiguration.isRevalidate() && !isBlobCacheEnabled() && !isDiskCacheEnabled()) {
+                    return toResource(filepath, file.metadata(), file.content());
+                }
+
+                // The content has to be kept around, it is decoded once and for all
+                final byte[] decodedContent = file.content() != null ? readContent(file.content()) : null;
+                final Object contentBlobId = file.metadata().get(BLOB_ID_PROPERTY_KEY);
+                if (decodedContent != null && contentBlobId != null && isBlobCacheEnabled()) {
+                    blobCache().put(blobCacheKey(String.valueOf(contentBlobId)), decodedContent);
+                }
+                return toResource(filepath, url, file.metadata(), decodedContent, response.headers().get(ETAG_HEADER));
+            })
         );
     }
 
+    private GitlabChanges toChanges(String fromCommit, GitlabCompareParser.Comparison comparison) throws FetcherException {
+        if (comparison.timedOut()) {
+            throw new FetcherException("GitLab timed out comparing '" + fromCommit + "' with '" + configuredRef() + "'", null);
+        }
+
+        final String prefix = configuredFolderPrefix();
+        final List<GitlabChange> changes = new ArrayList<>();
+        for (GitlabCompareParser.Diff diff : comparison.diffs()) {
+            final boolean oldInFolder = diff.oldPath() != null && diff.oldPath().startsWith(prefix);
+            final boolean newInFolder = diff.newPath() != null && diff.newPath().startsWith(prefix);
+            if (diff.newFile()) {
+                if (newInFolder) {
+                    changes.add(new GitlabChange(GitlabChange.Type.ADDED, "/" + diff.newPath(), null));
+                }
+            } else if (diff.deletedFile()) {
+                if (oldInFolder) {
+                    changes.add(new GitlabChange(GitlabChange.Type.DELETED, "/" + diff.oldPath(), null));
+                }
+            } else if (diff.renamedFile() && oldInFolder && newInFolder) {
+                changes.add(new GitlabChange(GitlabChange.Type.RENAMED, "/" + diff.newPath(), "/" + diff.oldPath()));
+            } else if (diff.renamedFile() && newInFolder) {
+                changes.add(new GitlabChange(GitlabChange.Type.ADDED, "/" + diff.newPath(), null));
+            } else if (diff.renamedFile() && oldInFolder) {
+                changes.add(new GitlabChange(GitlabChange.Type.DELETED, "/" + diff.oldPath(), null));
+            } else if (!diff.renamedFile() && newInFolder) {
+                changes.add(new GitlabChange(GitlabChange.Type.MODIFIED, "/" + diff.newPath(), null));
+            }
+        }
+
+        final String toCommit = comparison.toCommit() != null ? comparison.toCommit() : fromCommit;
+        return new GitlabChanges(fromCommit, toCommit, changes);
+    }
+
+    private Resource toArchiveResource(String path, byte[] content) {
+        final Map<String, Object> metadata = new HashMap<>();
+        metadata.put(PATH_PROPERTY_KEY, "/" + path);
+        metadata.put(FILE_PATH_PROPERTY_KEY, path);
+        metadata.put(FILE_NAME_PROPERTY_KEY, path.substring(path.lastIndexOf('/') + 1));
+        metadata.put(SIZE_PROPERTY_KEY, (long) content.length);
+        return toResource(path, metadata, new ByteArrayInputStream(content));
+    }
+
+    private byte[] readContent(InputStream content) throws IOException {
+        try (content) {
+            return content.readAllBytes();
+        }
+    }
+
+    private Resource toResource(String filepath, Map<String, Object> metadata, InputStream content) {
+        final Resource resource = new Resource();
+        resource.setContent(content);
+        metadata.put(EDIT_URL_PROPERTY_KEY, buildEditUrl(filepath));
+        metadata.put(PROVIDER_NAME_PROPERTY_KEY, "GitLab");
+        resource.setMetadata(metadata);
+        return resource;
+    }
+
+    private Resource toResource(String filepath, String url, Map<String, Object> metadata, byte[] content, String etag) {
+        final Resource resource = toResource(filepath, metadata, content != null ? new ByteArrayInputStream(content) : null);
+
+        if (gitlabFetcherConfiguration.isRevalidate()) {
+            final Object blobId = metadata.get(BLOB_ID_PROPERTY_KEY);
+            revalidationStore().put(
+                url,
+                new GitlabRevalidationStore.Entry(blobId != null ? String.valueOf(blobId) : null, etag, new HashMap<>(metadata), content)
+            );
+        }
+        if (isDiskCacheEnabled()) {
+            final Object blobId = metadata.get(BLOB_ID_PROPERTY_KEY);
+            diskCache()
+                .write(
+                    diskCacheKey(url),
+                    new GitlabDiskCache.Entry(
+                        blobId != null ? String.valueOf(blobId) : null,
+                        new HashMap<>(metadata),
+                        content != null ? ByteBuffer.wrap(content) : null
+                    )
+                )
+                .onFailure(failure -> log.warn("Unable to write GitLab content '{}' to the disk cache", url, failure));
+        }
+        return resource;
+    }
+
+    /**
+     * Builds the metadata of a file from the {@code X-Gitlab-*} headers GitLab returns along with it, using the same keys as the
+     * JSON representation of the file (e.g. {@code X-Gitlab-Blob-Id} becomes {@code blob_id}).
+     */
+    private Map<String, Object> metadataFromHeaders(MultiMap headers) {
+        final Map<String, Object> metadata = new HashMap<>();
+        headers.forEach(header -> {
+            final String name = header.getKey().toLowerCase(Locale.ROOT);
+            if (name.startsWith(GITLAB_HEADER_PREFIX)) {
+                final String key = name.substring(GITLAB_HEADER_PREFIX.length()).replace('-', '_');
+                if (SIZE_PROPERTY_KEY.equals(key)) {
+                    try {
+                        metadata.put(key, Long.parseLong(header.getValue()));
+                    } catch (NumberFormatException e) {
+                        metadata.put(key, header.getValue());
+                    }
+                } else {
+                    metadata.put(key, header.getValue());
+                }
+            }
+        });
+        return metadata;
+    }
+
+    private Future<String> prepareTreeUrl() throws FetcherException {
+        checkRequiredFields(false);
+        if ((gitlabFetcherConfiguration.getFilepath() == null || gitlabFetcherConfiguration.getFilepath().isEmpty())) {
+            gitlabFetcherConfiguration.setFilepath("/");
+        }
+        return pinnedUrl(this::getTreeUrl);
+    }
+
+    private Future<String[]> listFiles(String url) {
+        return fetchPages(url).compose(pages ->
+            GitlabFutures.attempt(() -> {
+                List<String> result = new ArrayList<>();
+                for (Buffer page : pages) {
+                    for (GitlabTreeEntry entry : readTree(page)) {
+                        if (entry.isBlob()) {
+                            result.add("/" + entry.path());
+                        }
+                    }
+                }
+                return result.toArray(new String[0]);
+            })
+        );
+    }
+
+    /**
+     * The url the given file can be edited at in the GitLab web interface. Package-private for the url benchmark.
+     */
+    String buildEditUrl(String filepath) {
+        return endpoint().editUrl(filepath);
+    }
+
     private void checkRequiredFields(boolean checkFilepath) throws FetcherException {
         if (
             gitlabFetcherConfiguration.getBranchOrTag() == null ||
@@ -183,6 +1009,12 @@ public class GitlabFetcher implements FilesFetcher {
             throw new FetcherException("Some required configuration attributes are missing.", null);
         }
 
+        try {
+            endpoint();
+        } catch (IllegalArgumentException e) {
+            throw new FetcherException("GitLab URL is invalid", e);
+        }
+
         if (gitlabFetcherConfiguration.isAutoFetch()) {
             try {
                 CronExpression.parse(gitlabFetcherConfiguration.getFetchCron());
@@ -192,176 +1024,453 @@ public class GitlabFetcher implements FilesFetcher {
         }
     }
 
-    private String getFetchUrl() throws FetcherException {
-        String ref = ((gitlabFetcherConfiguration.getBranchOrTag() == null || gitlabFetcherConfiguration.getBranchOrTag().trim().isEmpty())
-                ? "master"
-                : gitlabFetcherConfiguration.getBranchOrTag().trim());
+    private String configuredRef() {
+        return endpoint().ref();
+    }
 
-        try {
-            String encodedProject = URLEncoder.encode(
-                gitlabFetcherConfiguration.getNamespace().trim() + '/' + gitlabFetcherConfiguration.getProject().trim(),
-                "UTF-8"
-            );
+    /**
+     * The endpoint of the current configuration, resolved again only when its GitLab URL, namespace, project, ref or token has changed.
+     */
+    private GitlabEndpoint endpoint() {
+        GitlabEndpoint current = endpoint;
+        if (current == null || !current.isResolvedFrom(gitlabFetcherConfiguration)) {
+            current = GitlabEndpoint.of(gitlabFetcherConfiguration);
+            endpoint = current;
+        }
+        return current;
+    }
 
-            switch (gitlabFetcherConfiguration.getApiVersion()) {
-                case V4:
-                    String filepath = gitlabFetcherConfiguration.getFilepath().trim();
-                    if (filepath.startsWith("/")) {
-                        filepath = filepath.substring(1);
-                    }
-                    return (
-                        gitlabFetcherConfiguration.getGitlabUrl().trim() +
-                        "/projects/" +
-                        encodedProject +
-                        "/repository/files/" +
-                        URLEncoder.encode(filepath, "UTF-8") +
-                        "?ref=" +
-                        ref
-                    );
-                default:
-                    return (
-                        gitlabFetcherConfiguration.getGitlabUrl().trim() +
-                        "/projects/" +
-                        encodedProject +
-                        "/repository/files" +
-                        "?file_path=" +
-                        gitlabFetcherConfiguration.getFilepath().trim() +
-                        "&ref=" +
-                        ref
-                    );
+    /**
+     * The url the given file is fetched from, at the configured ref. Package-private for the url benchmark.
+     */
+    String getFetchUrl(String filepath) {
+        return getFetchUrl(filepath, configuredRef());
+    }
+
+    private String getFetchUrl(String filepath, String ref) {
+        switch (gitlabFetcherConfiguration.getApiVersion()) {
+            case V4:
+                String path = filepath.trim();
+                if (path.startsWith("/")) {
+                    path = path.substring(1);
+                }
+                return (
+                    projectUrl() +
+                    "/repository/files/" +
+                    GitlabEndpoint.encode(path) +
+                    (isRawMode() ? "/raw" : "") +
+                    "?ref=" +
+                    ref
+                );
+            default:
+                return projectUrl() + "/repository/files" + "?file_path=" + filepath.trim() + "&ref=" + ref;
+        }
+    }
+
+    private Future<String> prepareArchiveUrl() throws FetcherException {
+        checkRequiredFields(false);
+        if (gitlabFetcherConfiguration.getApiVersion() != ApiVersion.V4) {
+            throw new FetcherException("Archive import is only available with the GitLab API v4", null);
+        }
+        return pinnedUrl(this::getArchiveUrl);
+    }
+
+    private String getArchiveUrl(String ref) {
+        final String folder = configuredFolder();
+        return (
+            projectUrl() +
+            "/repository/archive.zip" +
+            "?sha=" +
+            GitlabEndpoint.encode(ref) +
+            (folder.isEmpty() ? "" : "&path=" + GitlabEndpoint.encode(folder))
+        );
+    }
+
+    /**
+     * The configured folder of the repository, without leading nor trailing slash, empty for the whole repository.
+     */
+    private String configuredFolder() {
+        String folder = gitlabFetcherConfiguration.getFilepath() == null ? "" : gitlabFetcherConfiguration.getFilepath().trim();
+        while (folder.startsWith("/")) {
+            folder = folder.substring(1);
+        }
+        while (folder.endsWith("/")) {
+            folder = folder.substring(0, folder.length() - 1);
+        }
+        return folder;
+    }
+
+    private String configuredFolderPrefix() {
+        final String folder = configuredFolder();
+        return folder.isEmpty() ? "" : folder + "/";
+    }
+
+    private String getCommitUrl() {
+        return projectUrl() + "/repository/commits/" + endpoint().encodedRef();
+    }
+
+    private String getGraphqlUrl() {
+        return endpoint().graphqlUrl();
+    }
+
+    private String getCompareUrl(String fromCommit, String ref) {
+        return (
+            projectUrl() +
+            "/repository/compare" +
+            "?from=" +
+            GitlabEndpoint.encode(fromCommit) +
+            "&to=" +
+            GitlabEndpoint.encode(ref)
+        );
+    }
+
+    private String getTreeUrl(String ref) {
+        String filepath = gitlabFetcherConfiguration.getFilepath().trim();
+
+        if (filepath.startsWith("/")) {
+            if (filepath.length() == 1) {
+                filepath = "";
+            } else {
+                filepath = filepath.substring(1);
             }
-        } catch (UnsupportedEncodingException e) {
-            log.error("Error thrown when trying to encode the url", e);
-            throw new FetcherException("Error thrown when trying to encode the url", e);
         }
+
+        return (
+            projectUrl() +
+            "/repository/tree" +
+            "?path=" +
+            GitlabEndpoint.encode(filepath) +
+            "&ref=" +
+            ref +
+            "&recursive=true" +
+            "&per_page=" +
+            treePageSize()
+        );
     }
 
-    private String getTreeUrl() throws FetcherException {
-        String ref = ((gitlabFetcherConfiguration.getBranchOrTag() == null || gitlabFetcherConfiguration.getBranchOrTag().trim().isEmpty())
-                ? "master"
-                : gitlabFetcherConfiguration.getBranchOrTag().trim());
+    private int treePageSize() {
+        final int pageSize = gitlabFetcherConfiguration.getTreePageSize();
+        return pageSize <= 0 || pageSize > MAX_PAGE_SIZE ? MAX_PAGE_SIZE : pageSize;
+    }
 
-        try {
-            String encodedProject = URLEncoder.encode(
-                gitlabFetcherConfiguration.getNamespace().trim() + '/' + gitlabFetcherConfiguration.getProject().trim(),
-                "UTF-8"
-            );
-            String filepath = gitlabFetcherConfiguration.getFilepath().trim();
+    /**
+     * Fetches all the pages of a paginated GitLab listing, starting from the given url.
+     * When GitLab reports the total number of pages, the remaining pages are fetched concurrently,
+     * otherwise the {@code X-Next-Page} or {@code Link} headers are followed one page after the other.
+     */
+    private Future<List<Buffer>> fetchPages(String url) {
+        return fetchTreePage(url).compose(firstPage -> {
+            final List<Buffer> pages = new ArrayList<>();
+            pages.add(firstPage.body());
 
-            if (filepath.startsWith("/")) {
-                if (filepath.length() == 1) {
-                    filepath = "";
-                } else {
-                    filepath = filepath.substring(1);
+            final int totalPages = firstPage.intHeader(TOTAL_PAGES_HEADER);
+            if (totalPages > 1) {
+                final List<String> pageUrls = new ArrayList<>(totalPages - 1);
+                for (int page = 2; page <= totalPages; page++) {
+                    pageUrls.add(url + "&page=" + page);
                 }
+                final int concurrency = treeConcurrency > 0 ? treeConcurrency : DEFAULT_TREE_CONCURRENCY;
+                return GitlabFutures.mapWithConcurrency(pageUrls, concurrency, this::fetchTreePage).map(otherPages -> {
+                    otherPages.forEach(otherPage -> pages.add(otherPage.body()));
+                    return pages;
+                });
             }
 
-            return (
-                gitlabFetcherConfiguration.getGitlabUrl().trim() +
-                "/projects/" +
-                encodedProject +
-                "/repository/tree" +
-                "?path=" +
-                URLEncoder.encode(filepath, "UTF-8") +
-                "&ref=" +
-                ref +
-                "&recursive=true" +
-                "&per_page=100"
-            );
-        } catch (UnsupportedEncodingException e) {
-            log.error("Error thrown when trying to encode the url", e);
-            throw new FetcherException("Error thrown when trying to encode the url", e);
+            return fetchNextPages(url, firstPage, pages);
+        });
+    }
+
+    private Future<List<Buffer>> fetchNextPages(String url, GitlabResponse previousPage, List<Buffer> pages) {
+        final String nextPageUrl = nextPageUrl(url, previousPage.headers());
+        if (nextPageUrl == null) {
+            return Future.succeededFuture(pages);
         }
+        return fetchTreePage(nextPageUrl).compose(page -> {
+            pages.add(page.body());
+            return fetchNextPages(url, page, pages);
+        });
     }
 
-    private JsonNode request(String url) throws FetcherException {
+    private GitlabTree.Page openTreePage(String firstPageUrl, String url) throws FetcherException {
+        final String filepath = gitlabFetcherConfiguration.getFilepath();
+        final GitlabRequest request = acceptingCompression(GitlabRequest.get(GitlabRequest.TREE_OPERATION, url, filepath));
+        final StreamedResponse response = await(openStream(request), filepath);
+        final InputStream content = response.content();
         try {
-            Buffer buffer = fetchContent(url).get();
-            if (buffer == null || buffer.length() == 0) {
-                log.warn("Something goes wrong, Gitlab responds with a status 200 but the content is empty.");
-                return null;
+            return new GitlabTree.Page(
+                GitlabContentDecoder.decode(content, response.response().getHeader(HttpHeaders.CONTENT_ENCODING)),
+                nextPageUrl(firstPageUrl, response.response().headers())
+            );
+        } catch (IOException e) {
+            content.close();
+            throw new FetcherException("Unable to read Gitlab tree (" + e.getMessage() + ")", e);
+        }
+    }
+
+    private String nextPageUrl(String url, MultiMap headers) {
+        final int nextPage = GitlabResponse.intHeader(headers, NEXT_PAGE_HEADER);
+        if (nextPage > 0) {
+            return url + "&page=" + nextPage;
+        }
+
+        // Keyset pagination only advertises the next page through the Link header: <https://...>; rel="next"
+        final String link = headers.get(LINK_HEADER);
+        if (link != null) {
+            for (String part : link.split(",")) {
+                final int start = part.indexOf('<');
+                final int end = part.indexOf('>');
+                if (start != -1 && end > start && part.substring(end).contains("rel=\"next\"")) {
+                    return part.substring(start + 1, end);
+                }
             }
+        }
+        return null;
+    }
+
+    /**
+     * Asks GitLab, with a {@code HEAD} request, for the headers describing the file (blob id, last commit, size, ...) without downloading
+     * its content. Only the v4 API supports it, {@code null} is returned for v3 or when the request fails for another reason than
+     * the file not being found.
+     */
+    private Future<MultiMap> fetchFileHeaders(String filepath, String url) {
+        if (gitlabFetcherConfiguration.getApiVersion() != ApiVersion.V4) {
+            return Future.succeededFuture();
+        }
+
+        return fetchContent(GitlabRequest.head(GitlabRequest.FETCH_OPERATION, url, filepath))
+            .map(GitlabResponse::headers)
+            .recover(failure -> {
+                if (failure instanceof ResourceNotFoundException) {
+                    if (gitlabFetcherConfiguration.isRevalidate()) {
+                        revalidationStore().remove(url);
+                    }
+                    return Future.failedFuture(failure);
+                }
+                log.debug("Unable to get the headers of GitLab content '{}', it will be downloaded again", url, failure);
+                return Future.succeededFuture();
+            });
+    }
+
+    private boolean isRawMode() {
+        return gitlabFetcherConfiguration.getFetchMode() == FetchMode.RAW && gitlabFetcherConfiguration.getApiVersion() == ApiVersion.V4;
+    }
+
+    private boolean isBlobCacheEnabled() {
+        return blobCacheMaxSize > 0 && gitlabFetcherConfiguration.getApiVersion() == ApiVersion.V4;
+    }
+
+    private boolean isDiskCacheEnabled() {
+        return diskCacheDirectory != null && !diskCacheDirectory.trim().isEmpty();
+    }
+
+    private GitlabDiskCache diskCache() {
+        return GitlabDiskCache.get(
+            vertx,
+            mapper,
+            diskCacheDirectory.trim(),
+            diskCacheMaxSize > 0 ? diskCacheMaxSize : DEFAULT_DISK_CACHE_MAX_SIZE
+        );
+    }
+
+    /**
+     * The url identifies the project, the ref and the file, the token is part of the key so that what has been fetched with a token
+     * is not served to other ones.
+     */
+    private String diskCacheKey(String url) {
+        return url + '\n' + credentialsFingerprint();
+    }
+
+    private GitlabBlobCache blobCache() {
+        return GitlabBlobCache.get(vertx, blobCacheMaxSize, metrics());
+    }
+
+    private GitlabBlobCache.Key blobCacheKey(String blobId) {
+        return new GitlabBlobCache.Key(
+            endpoint().apiUrl(),
+            endpoint().projectPath(),
+            blobId
+        );
+    }
 
-            return new ObjectMapper().readTree(buffer.getBytes());
+    private GitlabRevalidationStore revalidationStore() {
+        return GitlabRevalidationStore.get(
+            vertx,
+            revalidationMaxEntries > 0 ? revalidationMaxEntries : DEFAULT_REVALIDATION_MAX_ENTRIES,
+            revalidationMaxSize > 0 ? revalidationMaxSize : DEFAULT_REVALIDATION_MAX_SIZE
+        );
+    }
+
+    private List<GitlabTreeEntry> readTree(Buffer buffer) throws IOException {
+        if (buffer == null || buffer.length() == 0) {
+            log.warn("Something goes wrong, Gitlab responds with a status 200 but the content is empty.");
+            return List.of();
+        }
+
+        return GitlabTreeParser.parse(mapper, buffer);
+    }
+
+    private <T> T await(Future<T> future, String what) throws FetcherException {
+        try {
+            return future.toCompletionStage().toCompletableFuture().get();
         } catch (InterruptedException ie) {
             Thread.currentThread().interrupt();
-            log.error("Fetch of Gitlab content '{}' has been interrupted", url, ie);
+            log.error("Fetch of Gitlab content '{}' has been interrupted", what, ie);
             throw new FetcherException("Unable to fetch Gitlab content (" + ie.getMessage() + ")", ie);
-        } catch (Exception ex) {
-            Throwable cause = ex instanceof ExecutionException && ex.getCause() != null ? ex.getCause() : ex;
-            if (cause instanceof ResourceNotFoundException resourceNotFoundException) {
-                throw resourceNotFoundException;
+        } catch (ExecutionException ex) {
+            final Throwable failure = toFetcherFailure(ex.getCause() != null ? ex.getCause() : ex);
+            if (failure instanceof FetcherException fetcherException) {
+                throw fetcherException;
             }
-            log.error(cause.getMessage(), cause);
-            throw new FetcherException("Unable to fetch Gitlab content (" + cause.getMessage() + ")", cause);
+            throw (RuntimeException) failure;
         }
     }
 
-    private String buildNotFoundMessage(String url) {
-        String ref = gitlabFetcherConfiguration.getBranchOrTag() == null || gitlabFetcherConfiguration.getBranchOrTag().trim().isEmpty()
-            ? "master"
-            : gitlabFetcherConfiguration.getBranchOrTag().trim();
+    private FetcherException toFetcherException(Throwable failure) {
+        final Throwable fetcherFailure = toFetcherFailure(failure);
+        return fetcherFailure instanceof FetcherException fetcherException
+            ? fetcherException
+            : new FetcherException("Unable to fetch Gitlab content (" + fetcherFailure.getMessage() + ")", fetcherFailure);
+    }
+
+    /**
+     * Turns the failure of an asynchronous fetch into the exception reported to the caller: a {@link ResourceNotFoundException} or a
+     * content which is not valid base64 are reported as is, any other failure is logged and wrapped into a {@link FetcherException}.
+     */
+    private Throwable toFetcherFailure(Throwable failure) {
+        if (failure instanceof ResourceNotFoundException || failure instanceof IllegalArgumentException) {
+            return failure;
+        }
+        log.error(failure.getMessage(), failure);
+        return new FetcherException("Unable to fetch Gitlab content (" + failure.getMessage() + ")", failure);
+    }
+
+    private String buildNotFoundMessage(String filepath, String url) {
         return (
             "Unable to fetch file '" +
-            gitlabFetcherConfiguration.getFilepath() +
+            filepath +
             "' from GitLab project '" +
             gitlabFetcherConfiguration.getNamespace() +
             "/" +
             gitlabFetcherConfiguration.getProject() +
             "' (ref: " +
-            ref +
+            configuredRef() +
             "): resource not found. Requested URL: " +
             url
         );
     }
 
-    private CompletableFuture<Buffer> fetchContent(String url) throws Exception {
-        Promise<Buffer> promise = Promise.promise();
+    private Future<GitlabResponse> fetchTreePage(String url) {
+        return fetchContent(GitlabRequest.get(GitlabRequest.TREE_OPERATION, url, gitlabFetcherConfiguration.getFilepath()));
+    }
 
-        URI requestUri = URI.create(url);
-        boolean ssl = HTTPS_SCHEME.equalsIgnoreCase(requestUri.getScheme());
+    /**
+     * Calls GitLab, sharing the call with the other fetchers of the node making the same request with the same credentials at the same
+     * time.
+     */
+    private Future<GitlabResponse> fetchContent(GitlabRequest request) {
+        return GitlabFutures.attempt(() ->
+            new GitlabInFlightRequests.Key(request, credentialsFingerprint(), httpClientKey(target(request.url())))
+        ).compose(key -> GitlabInFlightRequests.get(vertx).share(key, () -> callGitlab(acceptingCompression(request))));
+    }
 
-        final HttpClientOptions options = new HttpClientOptions()
-            .setSsl(ssl)
-            .setTrustAll(true)
-            .setKeepAlive(false)
-            .setTcpKeepAlive(false)
-            .setConnectTimeout(httpClientTimeout)
-            .setIdleTimeout(httpClientTimeout)
-            .setIdleTimeoutUnit(TimeUnit.MILLISECONDS);
+    private Future<GitlabResponse> callGitlab(GitlabRequest request) {
+        final GitlabMetrics metrics = metrics();
+        if (!metrics.isEnabled()) {
+            return send(request).compose(response -> handleResponse(request, response));
+        }
 
-        final PoolOptions poolOptions = new PoolOptions().setHttp1MaxSize(1);
+        final long start = System.nanoTime();
+        return send(request)
+            .compose(response -> handleResponse(request, response))
+            .onSuccess(response ->
+                metrics.completed(host(request), request.operation(), response.body().length(), System.nanoTime() - start)
+            )
+            .onFailure(failure -> metrics.failed(host(request), request.operation(), failure, System.nanoTime() - start));
+    }
 
-        if (gitlabFetcherConfiguration.isUseSystemProxy()) {
-            ProxyOptions proxyOptions = new ProxyOptions();
-            proxyOptions.setType(ProxyType.valueOf(httpClientProxyType));
-            if (HTTPS_SCHEME.equals(requestUri.getScheme())) {
-                proxyOptions.setHost(httpClientProxyHttpsHost);
-                proxyOptions.setPort(httpClientProxyHttpsPort);
-                proxyOptions.setUsername(httpClientProxyHttpsUsername);
-                proxyOptions.setPassword(httpClientProxyHttpsPassword);
-            } else {
-                proxyOptions.setHost(httpClientProxyHttpHost);
-                proxyOptions.setPort(httpClientProxyHttpPort);
-                proxyOptions.setUsername(httpClientProxyHttpUsername);
-                proxyOptions.setPassword(httpClientProxyHttpPassword);
-            }
-            options.setProxyOptions(proxyOptions);
+    /**
+     * Sends the request to GitLab once the rate limit of the host allows it, the returned future being completed as soon as the
+     * response headers are received. Requests GitLab asked to retry later ({@code 429} and {@code 503} statuses) are retried after the
+     * requested delay, or after an exponential backoff when it did not tell, at most {@code fetcher.gitlab.rateLimit.maxRetries} times.
+     */
+    private Future<HttpClientResponse> send(GitlabRequest request) {
+        return send(request, 0);
+    }
+
+    private Future<HttpClientResponse> send(GitlabRequest request, int attempt) {
+        final String host = host(request);
+        final GitlabRateLimiter rateLimiter = GitlabRateLimiter.get(vertx);
+        return rateLimiter
+            .acquire(host)
+            .compose(ignored -> sendOnce(request))
+            .compose(response -> {
+                rateLimiter.update(host, response.headers());
+                if (!isRetryable(response.statusCode())) {
+                    return Future.succeededFuture(response);
+                }
+
+                final long now = System.currentTimeMillis();
+                final long retryAfter = GitlabRateLimiter.retryAfter(response.headers(), now);
+                if (retryAfter >= 0 && response.statusCode() == HttpStatusCode.TOO_MANY_REQUESTS_429) {
+                    rateLimiter.block(host, retryAfter, now);
+                }
+                final long delay = retryDelay(attempt, retryAfter);
+                if (attempt >= rateLimitMaxRetries || delay < 0) {
+                    return Future.succeededFuture(response);
+                }
+
+                log.debug("GitLab responded {} to '{}', retrying in {} ms", response.statusCode(), request.url(), delay);
+                return response
+                    .end()
+                    .otherwiseEmpty()
+                    .compose(ignored -> GitlabFutures.delay(vertx, delay))
+                    .compose(ignored -> send(request, attempt + 1));
+            });
+    }
+
+    private static boolean isRetryable(int statusCode) {
+        return statusCode == HttpStatusCode.TOO_MANY_REQUESTS_429 || statusCode == HttpStatusCode.SERVICE_UNAVAILABLE_503;
+    }
+
+    /**
+     * @return the delay before retrying a request: the one asked by GitLab if any, an exponential backoff otherwise, increased by a
+     * random jitter so that the retries of concurrent requests are spread. {@code -1} when GitLab asked to wait longer than the
+     * maximum backoff.
+     */
+    private long retryDelay(int attempt, long retryAfter) {
+        final long maxBackoff = rateLimitMaxBackoff > 0 ? rateLimitMaxBackoff : DEFAULT_RATE_LIMIT_MAX_BACKOFF;
+        if (retryAfter > maxBackoff) {
+            return -1;
         }
+        final long initialBackoff = rateLimitInitialBackoff > 0 ? rateLimitInitialBackoff : DEFAULT_RATE_LIMIT_INITIAL_BACKOFF;
+        final long delay = retryAfter >= 0 ? retryAfter : Math.min(maxBackoff, initialBackoff << Math.min(attempt, 20));
+        return delay + ThreadLocalRandom.current().nextLong(Math.max(1, Math.min(delay, initialBackoff) / 2 + 1));
+    }
 
-        final HttpClient httpClient = vertx.createHttpClient(options, poolOptions);
-        // Ensure the HTTP client is closed exactly once when the promise completes, regardless of success or failure
-        promise.future().onComplete(ar -> httpClient.close());
+    private Future<HttpClientResponse> sendOnce(GitlabRequest request) {
+        Promise<HttpClientResponse> promise = Promise.promise();
+        final String url = request.url();
 
-        final int port = requestUri.getPort() != -1 ? requestUri.getPort() : (HTTPS_SCHEME.equals(requestUri.getScheme()) ? 443 : 80);
+        final String host;
+        final int port;
+        final String pathAndQuery;
+        final HttpClient httpClient;
+        try {
+            final Target target = target(url);
+            host = target.host();
+            port = target.port();
+            pathAndQuery = target.pathAndQuery();
+            httpClient = GitlabHttpClients.get(vertx).client(httpClientKey(target), this::httpClientOptions);
+        } catch (Exception ex) {
+            return Future.failedFuture(ex);
+        }
 
         try {
-            String pathAndQuery = requestUri.getRawPath() + (requestUri.getRawQuery() != null ? "?" + requestUri.getRawQuery() : "");
-            log.debug("Fetching GitLab content from host: {}, URI: {}", requestUri.getHost(), pathAndQuery);
+            log.debug("Fetching GitLab content from host: {}, URI: {}", host, pathAndQuery);
             final RequestOptions reqOptions = new RequestOptions()
-                .setMethod(HttpMethod.GET)
+                .setMethod(request.method())
                 .setPort(port)
-                .setHost(requestUri.getHost())
+                .setHost(host)
                 .setURI(pathAndQuery)
                 .putHeader(io.gravitee.common.http.HttpHeaders.USER_AGENT, NodeUtils.userAgent(node))
                 .putHeader("X-Gravitee-Request-Id", UUID.toString(UUID.random()))
@@ -373,25 +1482,245 @@ public class GitlabFetcher implements FilesFetcher {
                 // Set GitLab token header
                 reqOptions.putHeader("PRIVATE-TOKEN", gitlabFetcherConfiguration.getPrivateToken());
             }
+            request.headers().forEach(reqOptions::putHeader);
 
+            final GitlabMetrics metrics = metrics();
+            final long start = System.nanoTime();
             httpClient
                 .request(reqOptions)
-                .compose(HttpClientRequest::send)
-                .compose(response -> handleResponse(url, response))
+                .onSuccess(clientRequest -> metrics.connected(host, request.operation(), System.nanoTime() - start))
+                .compose(clientRequest -> request.body() != null ? clientRequest.send(request.body()) : clientRequest.send())
+                .onSuccess(response ->
+                    metrics.responded(host, request.operation(), response.statusCode(), System.nanoTime() - start)
+                )
                 .onSuccess(promise::complete)
                 .onFailure(promise::fail);
         } catch (Exception ex) {
             promise.fail(ex);
         }
 
-        return promise.future().toCompletionStage().toCompletableFuture();
+        return promise.future();
+    }
+
+    /**
+     * Where the given url is sent to. The urls built from the configuration are sent to the host parsed once with it, others (e.g.
+     * pagination links) are parsed.
+     */
+    private Target target(String url) {
+        final GitlabEndpoint endpoint = endpoint();
+        final String endpointPathAndQuery = endpoint.pathAndQuery(url);
+        if (endpointPathAndQuery != null) {
+            return new Target(endpoint.host(), endpoint.port(), endpoint.ssl(), endpointPathAndQuery);
+        }
+        final URI requestUri = URI.create(url);
+        final boolean ssl = HTTPS_SCHEME.equalsIgnoreCase(requestUri.getScheme());
+        return new Target(
+            requestUri.getHost(),
+            requestUri.getPort() != -1 ? requestUri.getPort() : (ssl ? 443 : 80),
+            ssl,
+            requestUri.getRawPath() + (requestUri.getRawQuery() != null ? "?" + requestUri.getRawQuery() : "")
+        );
+    }
+
+    /**
+     * Identifies the shared client sending the requests to the given target, with the TLS and proxy settings of this fetcher.
+     */
+    private GitlabHttpClients.Key httpClientKey(Target target) {
+        final String host = target.host();
+        final int port = target.port();
+        final boolean ssl = target.ssl();
+        // The CA certificate of the configuration, when set, replaces the trust store of the node
+        final String caCertificate = ssl ? trimToNull(gitlabFetcherConfiguration.getCaCertificate()) : null;
+        final String trustStorePath = ssl && caCertificate == null ? trimToNull(httpClientSslTruststorePath) : null;
+        final String trustStoreType = httpClientSslTruststoreType != null && !httpClientSslTruststoreType.isBlank()
+            ? httpClientSslTruststoreType.trim().toLowerCase(Locale.ROOT)
+            : "jks";
+        // Trusting any certificate makes checking the name it has been issued for pointless
+        final boolean trustAll = ssl && caCertificate == null && trustStorePath == null && httpClientSslTrustAll;
+
+        String proxyHost = null;
+        int proxyPort = 0;
+        String proxyUsername = null;
+        String proxyPassword = null;
+        if (gitlabFetcherConfiguration.isUseSystemProxy()) {
+            if (ssl) {
+                proxyHost = httpClientProxyHttpsHost;
+                proxyPort = httpClientProxyHttpsPort;
+                proxyUsername = httpClientProxyHttpsUsername;
+                proxyPassword = httpClientProxyHttpsPassword;
+            } else {
+                proxyHost = httpClientProxyHttpHost;
+                proxyPort = httpClientProxyHttpPort;
+                proxyUsername = httpClientProxyHttpUsername;
+                proxyPassword = httpClientProxyHttpPassword;
+            }
+        }
+
+        return new GitlabHttpClients.Key(
+            host,
+            port,
+            ssl,
+            httpClientTimeout,
+            httpClientPoolMaxSize > 0 ? httpClientPoolMaxSize : DEFAULT_POOL_MAX_SIZE,
+            httpClientPoolKeepAliveTimeout > 0 ? httpClientPoolKeepAliveTimeout : DEFAULT_POOL_KEEP_ALIVE_TIMEOUT,
+            // HTTP/2 is negotiated through ALPN, which requires TLS
+            httpClientHttp2Enabled && ssl
+                ? (httpClientHttp2MultiplexingLimit > 0 ? httpClientHttp2MultiplexingLimit : DEFAULT_HTTP2_MULTIPLEXING_LIMIT)
+                : 0,
+            gitlabFetcherConfiguration.isUseSystemProxy() ? httpClientProxyType : null,
+            proxyHost,
+            proxyPort,
+            proxyUsername,
+            proxyPassword,
+            trustAll,
+            !trustAll && httpClientSslVerifyHost,
+            trustStorePath != null ? trustStoreType : null,
+            trustStorePath,
+            trustStorePath != null ? httpClientSslTruststorePassword : null,
+            caCertificate
+        );
     }
 
-    private Future<Buffer> handleResponse(String url, HttpClientResponse response) {
+    private HttpClientOptions httpClientOptions(GitlabHttpClients.Key key) {
+        final HttpClientOptions options = new HttpClientOptions()
+            .setSsl(key.ssl())
+            .setTrustAll(key.trustAll())
+            .setVerifyHost(key.verifyHost())
+            .setKeepAlive(true)
+            .setKeepAliveTimeout(key.keepAliveTimeout())
+            .setTcpKeepAlive(true)
+            .setConnectTimeout(key.connectTimeout());
+
+        if (key.caCertificate() != null) {
+            options.setTrustOptions(new PemTrustOptions().addCertValue(Buffer.buffer(key.caCertificate())));
+        } else if (key.trustStorePath() != null) {
+            options.setTrustOptions(
+                "pem".equals(key.trustStoreType())
+                    ? new PemTrustOptions().addCertPath(key.trustStorePath())
+                    : new KeyStoreOptions()
+                        .setType(key.trustStoreType())
+                        .setPath(key.trustStorePath())
+                        .setPassword(key.trustStorePassword())
+            );
+        }
+
+        if (key.http2MultiplexingLimit() > 0) {
+            // ALPN offers both protocols, HTTP/1.1 being used when the host does not select HTTP/2
+            options
+                .setProtocolVersion(HttpVersion.HTTP_2)
+                .setUseAlpn(true)
+                .setAlpnVersions(List.of(HttpVersion.HTTP_2, HttpVersion.HTTP_1_1))
+                .setHttp2MultiplexingLimit(key.http2MultiplexingLimit())
+                .setHttp2KeepAliveTimeout(key.keepAliveTimeout());
+        }
+
+        if (key.proxyType() != null) {
+            ProxyOptions proxyOptions = new ProxyOptions();
+            proxyOptions.setType(ProxyType.valueOf(key.proxyType()));
+            proxyOptions.setHost(key.proxyHost());
+            proxyOptions.setPort(key.proxyPort());
+            proxyOptions.setUsername(key.proxyUsername());
+            proxyOptions.setPassword(key.proxyPassword());
+            options.setProxyOptions(proxyOptions);
+        }
+
+        return options;
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    /**
+     * Sends the request and returns the response without reading its body, which is streamed through the returned content instead.
+     * The call is recorded as completed once the whole body has been received, the body being counted as it is streamed.
+     */
+    private Future<StreamedResponse> openStream(GitlabRequest request) {
+        final long start = System.nanoTime();
+        return send(request)
+            .compose(response -> {
+                if (response.statusCode() == HttpStatusCode.OK_200) {
+                    return Future.succeededFuture(new StreamedResponse(response, streamBody(request, response, start)));
+                }
+                return failure(request, response);
+            })
+            .onFailure(failure -> metrics().failed(host(request), request.operation(), failure, System.nanoTime() - start));
+    }
+
+    private InputStream streamBody(GitlabRequest request, HttpClientResponse response, long start) {
+        final GitlabMetrics metrics = metrics();
+        return new ReadStreamInputStream(
+            response,
+            httpClientTimeout,
+            () -> response.request().reset(),
+            new ReadStreamInputStream.Listener() {
+                @Override
+                public void ended(long bytes) {
+                    metrics.transferred(host(request), request.operation(), bytes);
+                    metrics.completed(host(request), request.operation(), bytes, System.nanoTime() - start);
+                }
+
+                @Override
+                public void failed(Throwable failure) {
+                    metrics.failed(host(request), request.operation(), failure, System.nanoTime() - start);
+                }
+            }
+        );
+    }
+
+    private GitlabMetrics metrics() {
+        if (metrics == null) {
+            metrics = GitlabMetrics.of(applicationContext);
+        }
+        return metrics;
+    }
+
+    private static String host(GitlabRequest request) {
+        try {
+            final String host = URI.create(request.url()).getHost();
+            return host != null ? host : "unknown";
+        } catch (IllegalArgumentException e) {
+            return "unknown";
+        }
+    }
+
+    private Future<GitlabResponse> handleResponse(GitlabRequest request, HttpClientResponse response) {
         if (response.statusCode() == HttpStatusCode.OK_200) {
-            return response.body();
-        } else if (response.statusCode() == HttpStatusCode.NOT_FOUND_404) {
-            return Future.failedFuture(new ResourceNotFoundException(buildNotFoundMessage(url), null));
+            return readBody(request, response).map(body -> new GitlabResponse(response.statusCode(), response.headers(), body));
+        } else if (response.statusCode() == HttpStatusCode.NOT_MODIFIED_304) {
+            return readBody(request, response).map(body -> new GitlabResponse(response.statusCode(), response.headers(), body));
+        } else {
+            return failure(request, response);
+        }
+    }
+
+    /**
+     * Reads the body of the response, decoding it once received when GitLab compressed it.
+     */
+    private Future<Buffer> readBody(GitlabRequest request, HttpClientResponse response) {
+        final String contentEncoding = response.getHeader(HttpHeaders.CONTENT_ENCODING);
+        return response.body().compose(body -> {
+            metrics().transferred(host(request), request.operation(), body.length());
+            return GitlabFutures.attempt(() -> GitlabContentDecoder.decode(body, contentEncoding));
+        });
+    }
+
+    /**
+     * Asks GitLab for a compressed response when {@code httpClient.compression.enabled} is set.
+     */
+    private GitlabRequest acceptingCompression(GitlabRequest request) {
+        return httpClientCompressionEnabled
+            ? request.withHeader(HttpHeaders.ACCEPT_ENCODING.toString(), GitlabContentDecoder.ACCEPTED_ENCODINGS)
+            : request;
+    }
+
+    private <T> Future<T> failure(GitlabRequest request, HttpClientResponse response) {
+        final String url = request.url();
+        if (response.statusCode() == HttpStatusCode.NOT_FOUND_404) {
+            final ResourceNotFoundException notFound = new ResourceNotFoundException(buildNotFoundMessage(request.filepath(), url), null);
+            // Only GitLab's message tells a missing project from a missing file, HEAD responses have none
+            final String projectId = request.method() != HttpMethod.HEAD ? addressedProjectId(url) : null;
+            return projectId != null ? projectNotFound(request, response, projectId, notFound) : Future.failedFuture(notFound);
         } else {
             return Future.failedFuture(
                 new FetcherException(
@@ -401,4 +1730,16 @@ public class GitlabFetcher implements FilesFetcher {
             );
         }
     }
+
+    @FunctionalInterface
+    private record Target(String host, int port, boolean ssl, String pathAndQuery) {}
+
+    /**
+     * A response whose body is being streamed through {@code content}.
+     */
+    private record StreamedResponse(HttpClientResponse response, InputStream content) {}
+
+    private interface UrlBuilder {
+        String build(String ref);
+    }
 }
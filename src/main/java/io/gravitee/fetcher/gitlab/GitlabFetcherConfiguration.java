@@ -33,6 +33,11 @@ public class GitlabFetcherConfiguration implements FetcherConfiguration, Filepat
 
     private String gitlabUrl;
     private boolean useSystemProxy;
+
+    /**
+     * PEM encoded certificates of the authorities trusted to call GitLab over TLS, instead of the ones of the node.
+     */
+    private String caCertificate;
     private String namespace;
     private String project;
     private String branchOrTag;
@@ -42,8 +47,40 @@ public class GitlabFetcherConfiguration implements FetcherConfiguration, Filepat
     private String privateToken;
 
     private ApiVersion apiVersion = V4;
+
+    /**
+     * Only taken into account with the v4 API, v3 always fetches the JSON representation of the file.
+     */
+    private FetchMode fetchMode = FetchMode.JSON;
     private String editLink;
 
+    /**
+     * Number of entries requested per page when listing files, GitLab does not allow more than 100.
+     */
+    private int treePageSize = 100;
+
+    /**
+     * When enabled, a file already fetched is only downloaded again once GitLab reports it has changed.
+     */
+    private boolean revalidate = false;
+
+    /**
+     * When enabled, the branch or tag is resolved to the commit it points to and the files are fetched from this commit.
+     */
+    private boolean resolveRef = false;
+
+    /**
+     * When enabled, the numeric id of the project is resolved once and the project is addressed by this id rather than by its full
+     * path, sparing GitLab the resolution of the path on every call.
+     */
+    private boolean resolveProjectId = false;
+
+    /**
+     * When enabled, the files of a folder fetched together are read with a few calls to the GraphQL API, each one returning many files,
+     * instead of one call per file. Only taken into account with the v4 API.
+     */
+    private boolean graphqlBatch = false;
+
     private String fetchCron;
 
     private boolean autoFetch = false;
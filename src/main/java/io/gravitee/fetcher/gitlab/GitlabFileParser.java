@@ -0,0 +1,168 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.vertx.core.buffer.Buffer;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parses the JSON representation of a file returned by the GitLab {@code /repository/files} endpoint.
+ *
+ * <p>The response is read with a streaming parser: the metadata fields are extracted while the base64 {@code content} is never
+ * materialized as a {@link String}. It is exposed as a stream decoding the response body on the fly, so that the only copy of a large
+ * file kept in memory is the response body itself.</p>
+ *
+ * @author GraviteeSource Team
+ */
+final class GitlabFileParser {
+
+    private static final String CONTENT_FIELD = "content";
+
+    private GitlabFileParser() {}
+
+    /**
+     * @throws IOException if the body is not a valid JSON object
+     * @throws IllegalArgumentException if the content is not valid base64
+     */
+    static GitlabFile parse(ObjectMapper mapper, Buffer body) throws IOException {
+        final Map<String, Object> metadata = new LinkedHashMap<>();
+        InputStream content = null;
+
+        try (JsonParser parser = mapper.getFactory().createParser(new BufferInputStream(body))) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("GitLab file response is not a JSON object");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String name = parser.currentName();
+                final JsonToken value = parser.nextToken();
+                if (CONTENT_FIELD.equals(name)) {
+                    if (value == JsonToken.VALUE_STRING) {
+                        content = content(parser, body);
+                    }
+                    parser.skipChildren();
+                } else {
+                    metadata.put(name, parser.readValueAs(Object.class));
+                }
+            }
+        }
+
+        return new GitlabFile(metadata, content);
+    }
+
+    private static InputStream content(JsonParser parser, Buffer body) throws IOException {
+        // The token location may either point to the opening quote or to the first character of the string
+        int start = (int) parser.currentTokenLocation().getByteOffset();
+        if (start >= 0 && start < body.length() && body.getByte(start) == '"') {
+            start++;
+        } else if (start <= 0 || body.getByte(start - 1) != '"') {
+            return new ByteArrayInputStream(parser.getBinaryValue());
+        }
+
+        int end = start;
+        while (end < body.length()) {
+            final byte b = body.getByte(end);
+            if (b == '"') {
+                break;
+            } else if (b == '\\') {
+                // Escaped characters are unusual in base64 content, let the parser deal with them
+                return new ByteArrayInputStream(parser.getBinaryValue());
+            } else if (!isBase64(b)) {
+                // Same message as the one of the JDK decoder
+                throw new IllegalArgumentException("Illegal base64 character " + Integer.toString(b, 16));
+            }
+            end++;
+        }
+
+        return new Base64ContentInputStream(body, start, end);
+    }
+
+    private static boolean isBase64(byte b) {
+        return (b >= 'A' && b <= 'Z') || (b >= 'a' && b <= 'z') || (b >= '0' && b <= '9') || b == '+' || b == '/' || b == '=';
+    }
+
+    /**
+     * The metadata of a file and its decoded content, {@code null} when the response does not contain any.
+     */
+    record GitlabFile(Map<String, Object> metadata, InputStream content) {}
+
+    /**
+     * Decodes a base64 range of a buffer on the fly, knowing the length of the decoded content in advance.
+     */
+    private static final class Base64ContentInputStream extends InputStream {
+
+        private final InputStream decoder;
+        private long remaining;
+
+        private Base64ContentInputStream(Buffer buffer, int start, int end) {
+            this.decoder = Base64.getDecoder().wrap(new BufferInputStream(buffer, start, end));
+            this.remaining = decodedLength(buffer, start, end);
+        }
+
+        private static long decodedLength(Buffer buffer, int start, int end) {
+            final int length = end - start;
+            int padding = 0;
+            for (int i = end - 1; i >= start && buffer.getByte(i) == '=' && padding < 2; i--) {
+                padding++;
+            }
+            return (long) length / 4 * 3 - padding + (length % 4 == 0 ? 0 : Math.max(length % 4 - 1, 0));
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = decoder.read();
+            if (b != -1) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            int count = 0;
+            while (count < length) {
+                final int read = decoder.read(bytes, offset + count, length - count);
+                if (read == -1) {
+                    break;
+                }
+                count += read;
+            }
+            remaining -= count;
+            return count == 0 ? -1 : count;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Math.max(remaining, 0), Integer.MAX_VALUE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            decoder.close();
+        }
+    }
+}
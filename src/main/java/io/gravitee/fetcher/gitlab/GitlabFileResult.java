@@ -0,0 +1,39 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import io.gravitee.fetcher.api.FetcherException;
+import io.gravitee.fetcher.api.Resource;
+
+/**
+ * The outcome of the fetch of one of the files requested through {@link GitlabFetcher#fetchAll(java.util.Collection)}:
+ * either the fetched resource or the error preventing to fetch it.
+ *
+ * @author GraviteeSource Team
+ */
+public record GitlabFileResult(String filepath, Resource resource, FetcherException error) {
+    static GitlabFileResult success(String filepath, Resource resource) {
+        return new GitlabFileResult(filepath, resource, null);
+    }
+
+    static GitlabFileResult failure(String filepath, FetcherException error) {
+        return new GitlabFileResult(filepath, null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
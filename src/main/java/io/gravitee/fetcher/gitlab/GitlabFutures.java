@@ -0,0 +1,148 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * @author GraviteeSource Team
+ */
+final class GitlabFutures {
+
+    private GitlabFutures() {}
+
+    /**
+     * Runs the given code and returns a future completed with its result, or failed with the exception it threw.
+     */
+    static <T> Future<T> attempt(Callable<T> callable) {
+        try {
+            return Future.succeededFuture(callable.call());
+        } catch (Exception e) {
+            return Future.failedFuture(e);
+        }
+    }
+
+    /**
+     * Returns a future completed after the given delay, in milliseconds, or right away when it is not positive.
+     */
+    static Future<Void> delay(Vertx vertx, long delay) {
+        if (delay <= 0) {
+            return Future.succeededFuture();
+        }
+        final Promise<Void> promise = Promise.promise();
+        vertx.setTimer(delay, timerId -> promise.complete());
+        return promise.future();
+    }
+
+    /**
+     * Applies the given asynchronous function to each item, never running more than {@code concurrency} of them at the same time.
+     * The results are returned in the order of the items. The returned future fails as soon as one of the functions fails.
+     */
+    static <T, R> Future<List<R>> mapWithConcurrency(List<T> items, int concurrency, Function<T, Future<R>> function) {
+        if (items.isEmpty()) {
+            return Future.succeededFuture(List.of());
+        }
+
+        final Promise<List<R>> promise = Promise.promise();
+        final AtomicReferenceArray<R> results = new AtomicReferenceArray<>(items.size());
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicInteger remaining = new AtomicInteger(items.size());
+
+        final int workers = Math.min(Math.max(concurrency, 1), items.size());
+        for (int i = 0; i < workers; i++) {
+            runNext(items, function, promise, results, next, remaining);
+        }
+
+        return promise.future();
+    }
+
+    /**
+     * Runs the next items as long as their futures are already completed, so that a long run of them is drained by this loop instead of
+     * growing the stack. It only returns to wait for a pending future, whose completion runs the next items.
+     */
+    private static <T, R> void runNext(
+        List<T> items,
+        Function<T, Future<R>> function,
+        Promise<List<R>> promise,
+        AtomicReferenceArray<R> results,
+        AtomicInteger next,
+        AtomicInteger remaining
+    ) {
+        while (true) {
+            final int index = next.getAndIncrement();
+            if (index >= items.size() || promise.future().isComplete()) {
+                return;
+            }
+
+            Future<R> future;
+            try {
+                future = function.apply(items.get(index));
+            } catch (Exception e) {
+                future = Future.failedFuture(e);
+            }
+
+            if (!future.isComplete()) {
+                future.onComplete(ar -> {
+                    if (record(index, ar, promise, results, remaining)) {
+                        runNext(items, function, promise, results, next, remaining);
+                    }
+                });
+                return;
+            }
+            if (!record(index, future, promise, results, remaining)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Records the outcome of the function applied to the item at the given index.
+     *
+     * @return whether the next items should be run.
+     */
+    private static <R> boolean record(
+        int index,
+        AsyncResult<R> ar,
+        Promise<List<R>> promise,
+        AtomicReferenceArray<R> results,
+        AtomicInteger remaining
+    ) {
+        if (ar.failed()) {
+            promise.tryFail(ar.cause());
+            return false;
+        }
+
+        results.set(index, ar.result());
+        if (remaining.decrementAndGet() == 0) {
+            final List<R> list = new ArrayList<>(results.length());
+            for (int i = 0; i < results.length(); i++) {
+                list.add(results.get(i));
+            }
+            promise.tryComplete(list);
+            return false;
+        }
+        return true;
+    }
+}
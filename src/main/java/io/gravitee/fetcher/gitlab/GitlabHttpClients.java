@@ -0,0 +1,95 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.PoolOptions;
+import io.vertx.core.shareddata.Shareable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Registry of the pooled, keep-alive {@link HttpClient}s used to call GitLab.
+ *
+ * <p>One client is created per {@link Key} and reused by every {@link GitlabFetcher} of the node, so that consecutive fetches
+ * against the same GitLab instance reuse the already established connections instead of paying a TCP and TLS handshake each time.
+ * Clients are never closed by the fetchers, they are closed along with the {@link Vertx} instance they belong to.</p>
+ *
+ * @author GraviteeSource Team
+ */
+final class GitlabHttpClients implements Shareable {
+
+    private static final String SHARED_DATA_NAME = "http-clients";
+
+    private final Vertx vertx;
+    private final ConcurrentMap<Key, HttpClient> clients = new ConcurrentHashMap<>();
+
+    private GitlabHttpClients(Vertx vertx) {
+        this.vertx = vertx;
+    }
+
+    static GitlabHttpClients get(Vertx vertx) {
+        return GitlabSharedData.get(vertx, SHARED_DATA_NAME, () -> new GitlabHttpClients(vertx));
+    }
+
+    HttpClient client(Key key, Function<Key, HttpClientOptions> optionsFactory) {
+        return clients.computeIfAbsent(key, k ->
+            vertx.createHttpClient(
+                optionsFactory.apply(k),
+                // HTTP/2 streams are multiplexed over a single connection, HTTP/1.1 is only used when the host does not support HTTP/2
+                new PoolOptions().setHttp1MaxSize(k.poolMaxSize()).setHttp2MaxSize(1)
+            )
+        );
+    }
+
+    int size() {
+        return clients.size();
+    }
+
+    /**
+     * Identifies a shared client: the target endpoint, the proxy to go through and the pool, protocol and TLS settings it has been
+     * created with. The TLS context of a client is built once and reused by all its connections, which lets them resume the TLS
+     * sessions of the previous ones.
+     *
+     * @param http2MultiplexingLimit the maximum number of concurrent requests sent over the HTTP/2 connection, {@code 0} when HTTP/2 is
+     * not used.
+     * @param trustStoreType the type of the trust store, {@code jks}, {@code pkcs12} or {@code pem}, when one is used.
+     * @param caCertificate PEM encoded certificates trusted instead of the trust store, when set.
+     */
+    record Key(
+        String host,
+        int port,
+        boolean ssl,
+        int connectTimeout,
+        int poolMaxSize,
+        int keepAliveTimeout,
+        int http2MultiplexingLimit,
+        String proxyType,
+        String proxyHost,
+        int proxyPort,
+        String proxyUsername,
+        String proxyPassword,
+        boolean trustAll,
+        boolean verifyHost,
+        String trustStoreType,
+        String trustStorePath,
+        String trustStorePassword,
+        String caCertificate
+    ) {}
+}
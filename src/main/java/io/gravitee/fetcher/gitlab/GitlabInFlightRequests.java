@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.Shareable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Shares the calls to GitLab being made by the fetchers of the node: a fetcher asking for what another one is already asking for, with
+ * the same credentials and through a client having the same TLS and proxy settings, waits for the pending call and gets the same
+ * response instead of calling GitLab again.
+ *
+ * <p>A call is only shared while it is pending, nothing is remembered once its response is received. The body of a shared response is
+ * read by all the callers, which must not modify it.</p>
+ *
+ * @author GraviteeSource Team
+ */
+final class GitlabInFlightRequests implements Shareable {
+
+    private static final String SHARED_DATA_NAME = "in-flight-requests";
+
+    private final ConcurrentMap<Key, Future<GitlabResponse>> pending = new ConcurrentHashMap<>();
+
+    GitlabInFlightRequests() {}
+
+    static GitlabInFlightRequests get(Vertx vertx) {
+        return GitlabSharedData.get(vertx, SHARED_DATA_NAME, GitlabInFlightRequests::new);
+    }
+
+    /**
+     * @param call makes the call to GitLab, only called when there is no pending call for the same key.
+     */
+    Future<GitlabResponse> share(Key key, Supplier<Future<GitlabResponse>> call) {
+        final Promise<GitlabResponse> promise = Promise.promise();
+        final Future<GitlabResponse> existing = pending.putIfAbsent(key, promise.future());
+        if (existing != null) {
+            return existing;
+        }
+
+        promise.future().onComplete(ignored -> pending.remove(key, promise.future()));
+        try {
+            call.get().onComplete(promise);
+        } catch (RuntimeException e) {
+            promise.tryFail(e);
+        }
+        return promise.future();
+    }
+
+    /**
+     * @param request the request, including its method, url and headers.
+     * @param credentials a fingerprint of the credentials used to call GitLab.
+     * @param client the client the request is sent with, so that a fetcher never gets a response it could not have received itself,
+     * e.g. through a connection whose certificate it does not trust.
+     */
+    record Key(GitlabRequest request, String credentials, GitlabHttpClients.Key client) {}
+}
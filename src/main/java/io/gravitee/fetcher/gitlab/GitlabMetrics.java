@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Records the timings and outcome of the calls made to GitLab, tagged by GitLab host and operation
+ * ({@value GitlabRequest#FETCH_OPERATION}, {@value GitlabRequest#TREE_OPERATION}, ...).
+ *
+ * <p>The calls are published through Micrometer when it is available along with a meter registry, and not recorded at all otherwise.</p>
+ *
+ * @author GraviteeSource Team
+ */
+interface GitlabMetrics {
+    GitlabMetrics NOOP = new GitlabMetrics() {};
+
+    /**
+     * @return whether calls are actually recorded, so that callers can skip measuring them otherwise.
+     */
+    default boolean isEnabled() {
+        return false;
+    }
+
+    /**
+     * Records the time taken to get a connection to GitLab, either from the pool or by opening a new one.
+     */
+    default void connected(String host, String operation, long nanos) {}
+
+    /**
+     * Records the time taken to receive the status and headers of the response.
+     */
+    default void responded(String host, String operation, int statusCode, long nanos) {}
+
+    /**
+     * Records the total time of a successful call, including the reception of its body.
+     */
+    default void completed(String host, String operation, long bytes, long nanos) {}
+
+    /**
+     * Records the size of a response body as received from GitLab, which is smaller than its decoded size when it is compressed.
+     */
+    default void transferred(String host, String operation, long encodedBytes) {}
+
+    /**
+     * Records a failed call, whether GitLab returned an error or could not be called at all.
+     */
+    default void failed(String host, String operation, Throwable failure, long nanos) {}
+
+    /**
+     * Publishes the number of hits and misses of the blob cache of the node, along with its size.
+     */
+    default void blobCache(GitlabBlobCache cache) {}
+
+    /**
+     * Selects the metrics of the node: Micrometer if it is on the classpath and a meter registry is available, nothing otherwise.
+     */
+    static GitlabMetrics of(ApplicationContext applicationContext) {
+        if (!ClassUtils.isPresent("io.micrometer.core.instrument.MeterRegistry", GitlabMetrics.class.getClassLoader())) {
+            return NOOP;
+        }
+        return MicrometerGitlabMetrics.of(applicationContext);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.Shareable;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the numeric id of the GitLab projects, so that the fetchers of the node address a project by its id rather than having
+ * GitLab resolve its full path on every call.
+ *
+ * <p>Resolutions are keyed by the credentials they have been made with: a fetcher never gets the id of a project it could not have
+ * resolved itself. A failed resolution is remembered for a short time, during which the project is addressed by its path without
+ * asking GitLab again, and a resolution is forgotten as soon as GitLab reports the project it points to does not exist anymore.</p>
+ *
+ * @author GraviteeSource Team
+ */
+final class GitlabProjectResolver implements Shareable {
+
+    private static final String SHARED_DATA_NAME = "project-resolver";
+
+    private final GitlabTtlResolver<Key, String> resolutions = new GitlabTtlResolver<>(System::currentTimeMillis);
+
+    GitlabProjectResolver() {}
+
+    static GitlabProjectResolver get(Vertx vertx) {
+        return GitlabSharedData.get(vertx, SHARED_DATA_NAME, GitlabProjectResolver::new);
+    }
+
+    /**
+     * @param ttl the time, in milliseconds, during which the resolved id is reused.
+     * @param failureTtl the time, in milliseconds, during which a failed resolution is reused.
+     * @param loader asks GitLab for the id of the project, only called when there is no pending nor recent resolution.
+     * @return the id of the project.
+     */
+    Future<String> resolve(Key key, long ttl, long failureTtl, Supplier<Future<String>> loader) {
+        return resolutions.resolve(key, ttl, failureTtl, loader);
+    }
+
+    /**
+     * @return the id the project has been resolved to, or {@code null} if it has not been resolved yet or its resolution expired.
+     */
+    String resolved(Key key) {
+        return resolutions.resolved(key);
+    }
+
+    /**
+     * Forgets the id the project has been resolved to, if it is the given one.
+     */
+    void invalidate(Key key, String projectId) {
+        resolutions.invalidate(key, projectId);
+    }
+
+    /**
+     * @param project the full path of the project, {@code namespace/project}.
+     * @param credentials a fingerprint of the credentials used to call GitLab.
+     */
+    record Key(String gitlabUrl, String project, String credentials) {}
+}
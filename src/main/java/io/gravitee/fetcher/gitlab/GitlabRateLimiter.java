@@ -0,0 +1,166 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.Shareable;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * Paces the calls made by all the fetchers of the node to a given GitLab host according to the rate limit it advertises.
+ *
+ * <p>GitLab returns the number of calls left in the current window ({@code RateLimit-Remaining}) and the time at which the window is
+ * reset ({@code RateLimit-Reset}). Once the budget is about to be exhausted, the next calls are spread until the reset; once it is
+ * exhausted, or when GitLab asked to retry later ({@code Retry-After}), they are delayed until then.
+ * Hosts which do not advertise any rate limit are never delayed.</p>
+ *
+ * @author GraviteeSource Team
+ */
+final class GitlabRateLimiter implements Shareable {
+
+    static final String REMAINING_HEADER = "RateLimit-Remaining";
+    static final String RESET_HEADER = "RateLimit-Reset";
+    static final String RETRY_AFTER_HEADER = "Retry-After";
+
+    private static final String SHARED_DATA_NAME = "rate-limiter";
+
+    /**
+     * Number of remaining calls under which the calls are spread until the reset of the window.
+     */
+    private static final int PACING_THRESHOLD = 10;
+
+    private final LongSupplier clock;
+    private final LongFunction<Future<Void>> delay;
+    private final ConcurrentMap<String, HostBudget> budgets = new ConcurrentHashMap<>();
+
+    /**
+     * @param clock the current time, in milliseconds.
+     * @param delay returns a future completed after the given time, in milliseconds.
+     */
+    GitlabRateLimiter(LongSupplier clock, LongFunction<Future<Void>> delay) {
+        this.clock = clock;
+        this.delay = delay;
+    }
+
+    static GitlabRateLimiter get(Vertx vertx) {
+        return GitlabSharedData.get(vertx, SHARED_DATA_NAME, () ->
+            new GitlabRateLimiter(System::currentTimeMillis, time -> GitlabFutures.delay(vertx, time))
+        );
+    }
+
+    /**
+     * @return a future completed once a call can be made to the given host, reserving that call in its budget.
+     */
+    Future<Void> acquire(String host) {
+        final HostBudget budget = budgets.get(host);
+        return budget == null ? Future.succeededFuture() : delay.apply(budget.reserve(clock.getAsLong()));
+    }
+
+    /**
+     * Updates the budget of the host from the rate limit headers of one of its responses.
+     */
+    void update(String host, MultiMap headers) {
+        final long remaining = longHeader(headers, REMAINING_HEADER);
+        final long reset = longHeader(headers, RESET_HEADER);
+        if (remaining >= 0 && reset > 0) {
+            budget(host).update(remaining, reset * 1000);
+        }
+    }
+
+    /**
+     * Delays all the calls to the host for the given time, as GitLab asked to.
+     */
+    void block(String host, long delay, long now) {
+        budget(host).block(now + delay);
+    }
+
+    /**
+     * @return the delay, in milliseconds, GitLab asked to wait before retrying, or {@code -1} if it did not.
+     */
+    static long retryAfter(MultiMap headers, long now) {
+        final String retryAfter = headers.get(RETRY_AFTER_HEADER);
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return -1;
+        }
+        try {
+            return Math.max(0, Long.parseLong(retryAfter.trim()) * 1000);
+        } catch (NumberFormatException e) {
+            try {
+                final ZonedDateTime date = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, date.toInstant().toEpochMilli() - now);
+            } catch (DateTimeParseException dtpe) {
+                return -1;
+            }
+        }
+    }
+
+    private HostBudget budget(String host) {
+        return budgets.computeIfAbsent(host, h -> new HostBudget());
+    }
+
+    private static long longHeader(MultiMap headers, String name) {
+        final String value = headers.get(name);
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static final class HostBudget {
+
+        private long remaining = -1;
+        private long resetAt;
+        private long blockedUntil;
+        private long nextSlot;
+
+        synchronized void update(long remaining, long resetAt) {
+            this.remaining = remaining;
+            this.resetAt = resetAt;
+        }
+
+        synchronized void block(long until) {
+            blockedUntil = Math.max(blockedUntil, until);
+        }
+
+        synchronized long reserve(long now) {
+            long at = Math.max(now, blockedUntil);
+            if (remaining >= 0 && resetAt > at) {
+                if (remaining == 0) {
+                    at = resetAt;
+                } else {
+                    if (remaining < PACING_THRESHOLD) {
+                        at = Math.max(at, nextSlot);
+                        nextSlot = at + Math.max(0, resetAt - at) / remaining;
+                    }
+                    remaining--;
+                }
+            }
+            return at - now;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.Shareable;
+import java.util.function.Supplier;
+
+/**
+ * Remembers, for a short time, the commit a branch or tag of a GitLab project points to, so that the fetchers of the node asking for
+ * the same ref at the same time share a single call to GitLab.
+ *
+ * <p>Resolutions are keyed by the credentials they have been made with: a fetcher never gets a commit it could not have resolved
+ * itself. A failed resolution is not remembered.</p>
+ *
+ * <p>The refs pinned by {@code resolveRef} and the ones checked by auto fetches are remembered by two separate resolvers, each
+ * reusing its resolutions for its own time.</p>
+ *
+ * @author GraviteeSource Team
+ */
+final class GitlabRefResolver implements Shareable {
+
+    private static final String SHARED_DATA_NAME = "ref-resolver";
+    private static final String COMMIT_CHECK_SHARED_DATA_NAME = "commit-check-resolver";
+
+    private final GitlabTtlResolver<Key, String> resolutions = new GitlabTtlResolver<>(System::currentTimeMillis);
+
+    GitlabRefResolver() {}
+
+    /**
+     * @return the resolver of the refs pinned by {@code resolveRef}.
+     */
+    static GitlabRefResolver get(Vertx vertx) {
+        return GitlabSharedData.get(vertx, SHARED_DATA_NAME, GitlabRefResolver::new);
+    }
+
+    /**
+     * @return the resolver of the refs checked by auto fetches before fetching their file again.
+     */
+    static GitlabRefResolver commitChecks(Vertx vertx) {
+        return GitlabSharedData.get(vertx, COMMIT_CHECK_SHARED_DATA_NAME, GitlabRefResolver::new);
+    }
+
+    /**
+     * @param ttl the time, in milliseconds, during which the resolved commit is reused.
+     * @param loader asks GitLab for the commit the ref points to, only called when there is no pending nor recent resolution.
+     * @return the id of the commit the ref points to.
+     */
+    Future<String> resolve(Key key, long ttl, Supplier<Future<String>> loader) {
+        return resolutions.resolve(key, ttl, loader);
+    }
+
+    /**
+     * @param credentials a fingerprint of the credentials used to call GitLab.
+     */
+    record Key(String gitlabUrl, String project, String ref, String credentials) {}
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import io.vertx.core.http.HttpMethod;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A call to the GitLab API.
+ *
+ * @param body the body sent along with the request, if any.
+ * @param filepath the file or folder the call is about, used to report it when GitLab answers it does not exist.
+ * @param operation what the call is made for, used to tag its metrics.
+ *
+ * @author GraviteeSource Team
+ */
+record GitlabRequest(HttpMethod method, String url, Map<String, String> headers, String body, String filepath, String operation) {
+    static final String FETCH_OPERATION = "fetch";
+    static final String TREE_OPERATION = "tree";
+    static final String ARCHIVE_OPERATION = "archive";
+    static final String COMMIT_OPERATION = "commit";
+    static final String COMPARE_OPERATION = "compare";
+    static final String GRAPHQL_OPERATION = "graphql";
+    static final String PROJECT_OPERATION = "project";
+
+    static GitlabRequest get(String operation, String url, String filepath) {
+        return new GitlabRequest(HttpMethod.GET, url, Map.of(), null, filepath, operation);
+    }
+
+    static GitlabRequest head(String operation, String url, String filepath) {
+        return new GitlabRequest(HttpMethod.HEAD, url, Map.of(), null, filepath, operation);
+    }
+
+    static GitlabRequest postJson(String operation, String url, String filepath, String body) {
+        return new GitlabRequest(HttpMethod.POST, url, Map.of("Content-Type", "application/json"), body, filepath, operation);
+    }
+
+    GitlabRequest withHeader(String name, String value) {
+        final Map<String, String> newHeaders = new HashMap<>(headers);
+        newHeaders.put(name, value);
+        return new GitlabRequest(method, url, Map.copyOf(newHeaders), body, filepath, operation);
+    }
+}
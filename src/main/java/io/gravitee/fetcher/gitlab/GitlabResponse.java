@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import io.gravitee.common.http.HttpStatusCode;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * A successful response returned by GitLab: its status, its headers and its fully read body.
+ *
+ * @author GraviteeSource Team
+ */
+record GitlabResponse(int statusCode, MultiMap headers, Buffer body) {
+    boolean isEmpty() {
+        return body == null || body.length() == 0;
+    }
+
+    boolean isNotModified() {
+        return statusCode == HttpStatusCode.NOT_MODIFIED_304;
+    }
+
+    int intHeader(String name) {
+        return intHeader(headers, name);
+    }
+
+    /**
+     * @return the value of the given header as an integer, {@code -1} when it is missing or not an integer.
+     */
+    static int intHeader(MultiMap headers, String name) {
+        final String value = headers.get(name);
+        if (value == null || value.isBlank()) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import io.gravitee.fetcher.api.Resource;
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.Shareable;
+import java.io.ByteArrayInputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the last resource fetched from a given url along with its validators (the blob id and the HTTP {@code ETag}),
+ * so that a later fetch of the same url only downloads the content when it has changed on GitLab.
+ *
+ * <p>The store keeps at most {@code maxEntries} resources whose contents total at most {@code maxSize} bytes, the least recently used
+ * ones being evicted first. A resource larger than {@code maxSize} is not stored.
+ * It is only an optimization: an entry is always revalidated against GitLab, with the caller's credentials, before being served.</p>
+ *
+ * @author GraviteeSource Team
+ */
+final class GitlabRevalidationStore implements Shareable {
+
+    private static final String SHARED_DATA_NAME = "revalidation-store";
+
+    private final int maxEntries;
+    private final long maxSize;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+
+    private GitlabRevalidationStore(int maxEntries, long maxSize) {
+        this.maxEntries = maxEntries;
+        this.maxSize = maxSize;
+    }
+
+    static GitlabRevalidationStore get(Vertx vertx, int maxEntries, long maxSize) {
+        return GitlabSharedData.get(vertx, SHARED_DATA_NAME, () -> new GitlabRevalidationStore(maxEntries, maxSize));
+    }
+
+    synchronized Entry get(String url) {
+        return entries.get(url);
+    }
+
+    synchronized void put(String url, Entry entry) {
+        if (entry.size() > maxSize) {
+            remove(url);
+            return;
+        }
+
+        final Entry previous = entries.put(url, entry);
+        size += entry.size() - (previous != null ? previous.size() : 0);
+
+        final Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while ((size > maxSize || entries.size() > maxEntries) && eldest.hasNext()) {
+            size -= eldest.next().getValue().size();
+            eldest.remove();
+        }
+    }
+
+    synchronized void remove(String url) {
+        final Entry removed = entries.remove(url);
+        if (removed != null) {
+            size -= removed.size();
+        }
+    }
+
+    synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Records the commit of the ref the resource of the given url has been fetched at, if it is still stored.
+     */
+    synchronized void markCommit(String url, String commitId) {
+        final Entry entry = entries.get(url);
+        if (entry != null) {
+            entries.put(url, entry.withCommitId(commitId));
+        }
+    }
+
+    /**
+     * A previously fetched resource and the validators GitLab returned with it.
+     *
+     * @param commitId the commit the ref pointed to when the resource has been fetched, when known.
+     */
+    record Entry(String blobId, String etag, Map<String, Object> metadata, byte[] content, String commitId) {
+        Entry(String blobId, String etag, Map<String, Object> metadata, byte[] content) {
+            this(blobId, etag, metadata, content, null);
+        }
+
+        Entry withCommitId(String commitId) {
+            return new Entry(blobId, etag, metadata, content, commitId);
+        }
+
+        long size() {
+            return content != null ? content.length : 0;
+        }
+
+        Resource toResource() {
+            final Resource resource = new Resource();
+            if (content != null) {
+                resource.setContent(new ByteArrayInputStream(content));
+            }
+            resource.setMetadata(new HashMap<>(metadata));
+            return resource;
+        }
+    }
+}
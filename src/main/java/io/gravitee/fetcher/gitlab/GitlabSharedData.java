@@ -0,0 +1,50 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+import java.util.function.Supplier;
+
+/**
+ * Gives access to the components shared by all the {@link GitlabFetcher} instances of a node.
+ *
+ * <p>Fetchers are instantiated for each fetch, so everything that must outlive a single fetch is stored in the local shared data
+ * of the node's {@link Vertx} instance and lives as long as it does.</p>
+ *
+ * @author GraviteeSource Team
+ */
+final class GitlabSharedData {
+
+    private static final String LOCAL_MAP_NAME = "gravitee-fetcher-gitlab";
+
+    private GitlabSharedData() {}
+
+    @SuppressWarnings("unchecked")
+    static <T extends Shareable> T get(Vertx vertx, String name, Supplier<T> factory) {
+        final LocalMap<String, Shareable> localMap = vertx.sharedData().getLocalMap(LOCAL_MAP_NAME);
+        T component = (T) localMap.get(name);
+        if (component == null) {
+            final T created = factory.get();
+            component = (T) localMap.putIfAbsent(name, created);
+            if (component == null) {
+                component = created;
+            }
+        }
+        return component;
+    }
+}
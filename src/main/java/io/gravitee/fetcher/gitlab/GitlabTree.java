@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gravitee.fetcher.api.FetcherException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * The entries of a folder of a GitLab repository, read one after the other while the pages listing them are being downloaded, so that
+ * listing a folder of any size only keeps one entry in memory at a time. Pages are downloaded one after the other, when the entries of
+ * the previous one have all been read.
+ * The tree must be closed once read, closing it before its end aborts the download of the current page.
+ *
+ * @author GraviteeSource Team
+ */
+public final class GitlabTree implements AutoCloseable {
+
+    private final ObjectMapper mapper;
+    private final PageOpener pageOpener;
+    private String nextPageUrl;
+    private InputStream content;
+    private JsonParser parser;
+
+    /**
+     * @param firstPageUrl the url of the first page of the tree.
+     * @param pageOpener starts the download of a page.
+     */
+    GitlabTree(ObjectMapper mapper, String firstPageUrl, PageOpener pageOpener) {
+        this.mapper = mapper;
+        this.nextPageUrl = firstPageUrl;
+        this.pageOpener = pageOpener;
+    }
+
+    /**
+     * Reads the next entry of the tree, downloading the next page when needed.
+     *
+     * @return the next entry, or {@code null} once all the entries have been read.
+     */
+    public GitlabTreeEntry next() throws FetcherException {
+        try {
+            while (true) {
+                if (parser == null) {
+                    if (nextPageUrl == null) {
+                        return null;
+                    }
+                    openPage();
+                    continue;
+                }
+
+                final JsonToken token = parser.nextToken();
+                if (token == JsonToken.START_OBJECT) {
+                    return GitlabTreeParser.entry(parser);
+                } else if (token == JsonToken.END_ARRAY || token == null) {
+                    // Reading the page up to its end lets its connection be reused
+                    content.transferTo(OutputStream.nullOutputStream());
+                    closePage();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new FetcherException("Unable to read Gitlab tree (" + e.getMessage() + ")", e);
+        }
+    }
+
+    @Override
+    public void close() throws FetcherException {
+        nextPageUrl = null;
+        try {
+            closePage();
+        } catch (IOException e) {
+            throw new FetcherException("Unable to close Gitlab tree", e);
+        }
+    }
+
+    private void openPage() throws FetcherException, IOException {
+        final Page page = pageOpener.open(nextPageUrl);
+        nextPageUrl = page.nextPageUrl();
+        content = page.content();
+        parser = mapper.getFactory().createParser(content);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            // Not a listing, there is no entry to read from this page
+            closePage();
+        }
+    }
+
+    private void closePage() throws IOException {
+        if (parser != null) {
+            final JsonParser current = parser;
+            parser = null;
+            content = null;
+            current.close();
+        }
+    }
+
+    @FunctionalInterface
+    interface PageOpener {
+        Page open(String url) throws FetcherException;
+    }
+
+    /**
+     * @param content the content of the page, read while it is being downloaded.
+     * @param nextPageUrl the url of the page following this one, {@code null} for the last page.
+     */
+    record Page(InputStream content, String nextPageUrl) {}
+}
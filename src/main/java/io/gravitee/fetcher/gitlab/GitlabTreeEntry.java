@@ -0,0 +1,33 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+/**
+ * An entry of a GitLab repository tree, as returned by the {@code /repository/tree} endpoint.
+ *
+ * @param type the type of the entry, {@code blob} for a file or {@code tree} for a folder.
+ * @param path the path of the entry, relative to the root of the repository.
+ * @param id the id of the blob or of the tree.
+ * @param mode the Git file mode of the entry, e.g. {@code 100644} for a regular file or {@code 040000} for a folder.
+ * @author GraviteeSource Team
+ */
+public record GitlabTreeEntry(String type, String path, String id, String mode) {
+    static final String BLOB_TYPE = "blob";
+
+    public boolean isBlob() {
+        return BLOB_TYPE.equals(type);
+    }
+}
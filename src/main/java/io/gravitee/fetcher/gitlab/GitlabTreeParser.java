@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.vertx.core.buffer.Buffer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses a page of a GitLab repository tree with a streaming parser, only keeping the fields of each entry needed by the fetcher.
+ *
+ * @author GraviteeSource Team
+ */
+final class GitlabTreeParser {
+
+    private GitlabTreeParser() {}
+
+    /**
+     * @return the entries of the page, empty when the page is not a JSON array.
+     * @throws IOException if the page is not valid JSON.
+     */
+    static List<GitlabTreeEntry> parse(ObjectMapper mapper, Buffer page) throws IOException {
+        final List<GitlabTreeEntry> entries = new ArrayList<>();
+
+        try (JsonParser parser = mapper.getFactory().createParser(new BufferInputStream(page))) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return entries;
+            }
+
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                if (token == JsonToken.START_OBJECT) {
+                    entries.add(entry(parser));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        return entries;
+    }
+
+    /**
+     * Reads the entry the parser is at, from its {@code START_OBJECT} up to its {@code END_OBJECT}.
+     */
+    static GitlabTreeEntry entry(JsonParser parser) throws IOException {
+        String type = null;
+        String path = null;
+        String id = null;
+        String mode = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.currentName();
+            final JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_STRING) {
+                switch (name) {
+                    case "type" -> type = parser.getText();
+                    case "path" -> path = parser.getText();
+                    case "id" -> id = parser.getText();
+                    case "mode" -> mode = parser.getText();
+                    default -> {
+                        // Other fields are not used
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        return new GitlabTreeEntry(type, path, id, mode);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Remembers, for a given time, the values resolved by asking GitLab, so that the callers asking for the same key at the same time
+ * share a single call.
+ *
+ * <p>A failed resolution is only remembered when asked to, for a shorter time. Expired resolutions are evicted from time to time,
+ * while new ones are made.</p>
+ *
+ * @author GraviteeSource Team
+ */
+final class GitlabTtlResolver<K, V> {
+
+    /**
+     * Minimum time, in milliseconds, between two evictions of the expired resolutions.
+     */
+    private static final long EVICTION_INTERVAL = 60_000;
+
+    private final LongSupplier clock;
+    private final ConcurrentMap<K, Resolution<V>> resolutions = new ConcurrentHashMap<>();
+    private final AtomicLong nextEviction = new AtomicLong();
+
+    /**
+     * @param clock the current time, in milliseconds.
+     */
+    GitlabTtlResolver(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * @param ttl the time, in milliseconds, during which the resolved value is reused.
+     * @param loader asks GitLab for the value, only called when there is no pending nor recent resolution.
+     * @return the resolved value.
+     */
+    Future<V> resolve(K key, long ttl, Supplier<Future<V>> loader) {
+        return resolve(key, ttl, 0, loader);
+    }
+
+    /**
+     * @param ttl the time, in milliseconds, during which the resolved value is reused.
+     * @param failureTtl the time, in milliseconds, during which a failed resolution is reused, so that GitLab is not asked again
+     * meanwhile. A failed resolution is not remembered when lower or equal to 0.
+     * @param loader asks GitLab for the value, only called when there is no pending nor recent resolution.
+     * @return the resolved value.
+     */
+    Future<V> resolve(K key, long ttl, long failureTtl, Supplier<Future<V>> loader) {
+        evictExpired(clock.getAsLong());
+        while (true) {
+            final long now = clock.getAsLong();
+            final Resolution<V> existing = resolutions.get(key);
+            if (existing != null && existing.expiresAt() > now) {
+                return existing.value();
+            }
+
+            final Promise<V> promise = Promise.promise();
+            final Resolution<V> created = new Resolution<>(promise.future(), now + ttl);
+            final boolean registered = existing == null
+                ? resolutions.putIfAbsent(key, created) == null
+                : resolutions.replace(key, existing, created);
+            if (registered) {
+                promise.future().onFailure(failure -> {
+                    if (failureTtl > 0) {
+                        resolutions.replace(key, created, new Resolution<>(promise.future(), clock.getAsLong() + failureTtl));
+                    } else {
+                        resolutions.remove(key, created);
+                    }
+                });
+                loader.get().onComplete(promise);
+                return promise.future();
+            }
+        }
+    }
+
+    /**
+     * @return the value the key has been resolved to, or {@code null} if it has not been resolved yet or its resolution expired.
+     */
+    V resolved(K key) {
+        final Resolution<V> resolution = resolutions.get(key);
+        if (resolution == null || resolution.expiresAt() <= clock.getAsLong() || !resolution.value().succeeded()) {
+            return null;
+        }
+        return resolution.value().result();
+    }
+
+    /**
+     * Forgets the value the key has been resolved to, if it is the given one.
+     */
+    void invalidate(K key, V value) {
+        final Resolution<V> resolution = resolutions.get(key);
+        if (resolution != null && resolution.value().succeeded() && value.equals(resolution.value().result())) {
+            resolutions.remove(key, resolution);
+        }
+    }
+
+    private void evictExpired(long now) {
+        final long evictionAt = nextEviction.get();
+        if (now >= evictionAt && nextEviction.compareAndSet(evictionAt, now + EVICTION_INTERVAL)) {
+            resolutions.values().removeIf(resolution -> resolution.expiresAt() <= now && resolution.value().isComplete());
+        }
+    }
+
+    private record Resolution<V>(Future<V> value, long expiresAt) {}
+}
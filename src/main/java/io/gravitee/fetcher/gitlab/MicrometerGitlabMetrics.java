@@ -0,0 +1,142 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import io.gravitee.fetcher.api.ResourceNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import org.springframework.context.ApplicationContext;
+
+/**
+ * {@link GitlabMetrics} published to a Micrometer {@link MeterRegistry}. This class must only be loaded when Micrometer is on the
+ * classpath.
+ *
+ * @author GraviteeSource Team
+ */
+final class MicrometerGitlabMetrics implements GitlabMetrics {
+
+    static final String PREFIX = "gravitee.fetcher.gitlab.";
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<Key, Meters> meters = new ConcurrentHashMap<>();
+
+    MicrometerGitlabMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Uses the meter registry of the application context if there is one, or the global registry when something has been registered
+     * into it.
+     */
+    static GitlabMetrics of(ApplicationContext applicationContext) {
+        MeterRegistry registry = applicationContext != null ? applicationContext.getBeanProvider(MeterRegistry.class).getIfUnique() : null;
+        if (registry == null && !Metrics.globalRegistry.getRegistries().isEmpty()) {
+            registry = Metrics.globalRegistry;
+        }
+        return registry != null ? new MicrometerGitlabMetrics(registry) : NOOP;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void connected(String host, String operation, long nanos) {
+        meters(host, operation).connect.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void responded(String host, String operation, int statusCode, long nanos) {
+        final Meters hostMeters = meters(host, operation);
+        hostMeters.firstByte.record(nanos, TimeUnit.NANOSECONDS);
+        Counter.builder(PREFIX + "responses")
+            .tags(hostMeters.tags)
+            .tag("status", String.valueOf(statusCode))
+            .register(registry)
+            .increment();
+    }
+
+    @Override
+    public void completed(String host, String operation, long bytes, long nanos) {
+        final Meters hostMeters = meters(host, operation);
+        hostMeters.duration.record(nanos, TimeUnit.NANOSECONDS);
+        hostMeters.receivedBytes.record(bytes);
+    }
+
+    @Override
+    public void transferred(String host, String operation, long encodedBytes) {
+        meters(host, operation).transferredBytes.record(encodedBytes);
+    }
+
+    @Override
+    public void failed(String host, String operation, Throwable failure, long nanos) {
+        final Meters hostMeters = meters(host, operation);
+        hostMeters.duration.record(nanos, TimeUnit.NANOSECONDS);
+        if (failure instanceof ResourceNotFoundException) {
+            hostMeters.notFound.increment();
+        } else {
+            Counter.builder(PREFIX + "errors")
+                .tags(hostMeters.tags)
+                .tag("exception", failure.getClass().getSimpleName())
+                .register(registry)
+                .increment();
+        }
+    }
+
+    @Override
+    public void blobCache(GitlabBlobCache cache) {
+        FunctionCounter.builder(PREFIX + "blob_cache.hits", cache, GitlabBlobCache::hits).register(registry);
+        FunctionCounter.builder(PREFIX + "blob_cache.misses", cache, GitlabBlobCache::misses).register(registry);
+        Gauge.builder(PREFIX + "blob_cache.size", cache, GitlabBlobCache::size).baseUnit("bytes").register(registry);
+    }
+
+    private Meters meters(String host, String operation) {
+        return meters.computeIfAbsent(new Key(host, operation), key -> new Meters(registry, Tags.of("host", host, "operation", operation)));
+    }
+
+    private record Key(String host, String operation) {}
+
+    private static final class Meters {
+
+        private final Tags tags;
+        private final Timer connect;
+        private final Timer firstByte;
+        private final Timer duration;
+        private final DistributionSummary receivedBytes;
+        private final DistributionSummary transferredBytes;
+        private final Counter notFound;
+
+        private Meters(MeterRegistry registry, Tags tags) {
+            this.tags = tags;
+            this.connect = Timer.builder(PREFIX + "connect").tags(tags).register(registry);
+            this.firstByte = Timer.builder(PREFIX + "ttfb").tags(tags).register(registry);
+            this.duration = Timer.builder(PREFIX + "duration").tags(tags).register(registry);
+            this.receivedBytes = DistributionSummary.builder(PREFIX + "received").baseUnit("bytes").tags(tags).register(registry);
+            this.transferredBytes = DistributionSummary.builder(PREFIX + "transferred").baseUnit("bytes").tags(tags).register(registry);
+            this.notFound = Counter.builder(PREFIX + "not_found").tags(tags).register(registry);
+        }
+    }
+}
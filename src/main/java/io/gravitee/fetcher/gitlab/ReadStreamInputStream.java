@@ -0,0 +1,185 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.ReadStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A blocking {@link InputStream} over a Vert.x {@link ReadStream}. The chunks are handed over from the event loop as they are received,
+ * the stream being paused while too many chunks are waiting to be read, so that the content is never entirely held in memory.
+ * It must not be read from an event loop thread.
+ *
+ * <p>The bytes are counted as they are received, the {@link Listener} being told how many once the end of the stream is reached.</p>
+ *
+ * @author GraviteeSource Team
+ */
+final class ReadStreamInputStream extends InputStream {
+
+    private static final Object END = new Object();
+    private static final int HIGH_WATER_MARK = 16;
+    private static final int LOW_WATER_MARK = 4;
+
+    private final BlockingQueue<Object> chunks = new LinkedBlockingQueue<>();
+    private final ReadStream<Buffer> stream;
+    private final long timeout;
+    private final Runnable onAbort;
+    private final Listener listener;
+    private long received;
+    private boolean paused;
+    private Buffer current;
+    private int position;
+    private boolean ended;
+    private volatile boolean closed;
+
+    /**
+     * @param stream the stream to read, which is resumed by this constructor.
+     * @param timeout the maximum time, in milliseconds, to wait for the next chunk. No limit is applied when lower or equal to 0.
+     * @param onAbort called when this input stream is closed before the end of the stream has been reached.
+     * @param listener told, from the thread of the stream, when the stream ends or fails.
+     */
+    ReadStreamInputStream(ReadStream<Buffer> stream, long timeout, Runnable onAbort, Listener listener) {
+        this.stream = stream;
+        this.timeout = timeout;
+        this.onAbort = onAbort;
+        this.listener = listener;
+
+        stream.handler(chunk -> {
+            received += chunk.length();
+            synchronized (chunks) {
+                chunks.add(chunk);
+                if (!paused && chunks.size() >= HIGH_WATER_MARK) {
+                    paused = true;
+                    stream.pause();
+                }
+            }
+        });
+        stream.exceptionHandler(failure -> {
+            if (!closed) {
+                listener.failed(failure);
+            }
+            chunks.add(failure);
+        });
+        stream.endHandler(v -> {
+            listener.ended(received);
+            chunks.add(END);
+        });
+        stream.resume();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!nextChunk()) {
+            return -1;
+        }
+        return current.getByte(position++) & 0xff;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!nextChunk()) {
+            return -1;
+        }
+        final int count = Math.min(length, current.length() - position);
+        current.getBytes(position, position + count, bytes, offset);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return current != null ? current.length() - position : 0;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            if (!ended) {
+                onAbort.run();
+            }
+        }
+    }
+
+    private boolean nextChunk() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        while (current == null || position >= current.length()) {
+            if (ended) {
+                return false;
+            }
+            final Object chunk = poll();
+            if (chunk == END) {
+                ended = true;
+                return false;
+            }
+            if (chunk instanceof Throwable failure) {
+                ended = true;
+                throw new IOException(failure.getMessage(), failure);
+            }
+            current = (Buffer) chunk;
+            position = 0;
+        }
+        return true;
+    }
+
+    private Object poll() throws IOException {
+        final Object chunk;
+        try {
+            chunk = timeout > 0 ? chunks.poll(timeout, TimeUnit.MILLISECONDS) : chunks.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for content");
+        }
+        if (chunk == null) {
+            throw new IOException("No content received for " + timeout + " ms");
+        }
+        synchronized (chunks) {
+            if (paused && chunks.size() <= LOW_WATER_MARK) {
+                paused = false;
+                stream.resume();
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Told about the outcome of the stream, from the thread of the stream.
+     */
+    interface Listener {
+        /**
+         * Called once the whole stream has been received.
+         *
+         * @param bytes the number of bytes received.
+         */
+        default void ended(long bytes) {}
+
+        /**
+         * Called when the stream failed before its end.
+         */
+        default void failed(Throwable failure) {}
+    }
+}
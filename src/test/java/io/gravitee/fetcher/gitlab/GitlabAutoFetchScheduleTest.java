@@ -0,0 +1,83 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.support.CronExpression;
+
+/**
+ * @author GraviteeSource Team
+ */
+class GitlabAutoFetchScheduleTest {
+
+    private static final CronExpression EVERY_FIVE_MINUTES = CronExpression.parse("0 */5 * * * *");
+    private static final ZonedDateTime NOW = ZonedDateTime.of(2024, 1, 1, 12, 1, 0, 0, ZoneOffset.UTC);
+
+    @Test
+    void should_always_run_a_fetcher_at_the_same_offset_within_the_window() {
+        ZonedDateTime first = GitlabAutoFetchSchedule.next(EVERY_FIVE_MINUTES, NOW, "namespace/project:/docs/index.md", 60_000);
+        ZonedDateTime second = GitlabAutoFetchSchedule.next(EVERY_FIVE_MINUTES, first, "namespace/project:/docs/index.md", 60_000);
+
+        assertThat(first).isAfter(NOW);
+        assertThat(Duration.between(NOW, first)).isLessThanOrEqualTo(Duration.ofMinutes(5));
+        assertThat(Duration.between(first, second)).isEqualTo(Duration.ofMinutes(5));
+        assertThat(GitlabAutoFetchSchedule.next(EVERY_FIVE_MINUTES, NOW, "namespace/project:/docs/index.md", 60_000)).isEqualTo(first);
+    }
+
+    @Test
+    void should_spread_fetchers_sharing_the_same_cron() {
+        Set<ZonedDateTime> executions = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            executions.add(GitlabAutoFetchSchedule.next(EVERY_FIVE_MINUTES, NOW, "namespace/project:/docs/page-" + i + ".md", 60_000));
+        }
+
+        assertThat(executions).hasSizeGreaterThan(90);
+    }
+
+    @Test
+    void should_not_delay_more_than_the_max_jitter() {
+        for (int i = 0; i < 100; i++) {
+            ZonedDateTime next = GitlabAutoFetchSchedule.next(EVERY_FIVE_MINUTES, NOW, "namespace/project:/docs/page-" + i + ".md", 10_000);
+
+            assertThat(next).isBetween(NOW.withMinute(5).withSecond(0), NOW.withMinute(5).withSecond(10));
+        }
+    }
+
+    @Test
+    void should_keep_the_same_offset_with_an_irregular_cron() {
+        CronExpression twiceADay = CronExpression.parse("0 0 9,17 * * *");
+
+        ZonedDateTime first = GitlabAutoFetchSchedule.next(twiceADay, NOW, "namespace/project:/docs/index.md", 60_000);
+        ZonedDateTime second = GitlabAutoFetchSchedule.next(twiceADay, first, "namespace/project:/docs/index.md", 60_000);
+
+        assertThat(first).isBetween(NOW.withHour(17).withMinute(0), NOW.withHour(17).withMinute(1));
+        assertThat(second).isEqualTo(first.plusHours(16));
+    }
+
+    @Test
+    void should_run_at_the_times_of_the_cron_without_jitter() {
+        assertThat(GitlabAutoFetchSchedule.next(EVERY_FIVE_MINUTES, NOW, "namespace/project:/docs/index.md", 0)).isEqualTo(
+            NOW.withMinute(5)
+        );
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vertx.core.Vertx;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+class GitlabBlobCacheTest {
+
+    private Vertx vertx;
+
+    @BeforeEach
+    void setUp() {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void should_count_hits_and_misses() {
+        GitlabBlobCache cache = GitlabBlobCache.get(vertx, 10, GitlabMetrics.NOOP);
+        cache.put(key("a"), new byte[] { 1, 2, 3 });
+
+        assertThat(cache.get(key("a"))).containsExactly(1, 2, 3);
+        assertThat(cache.get(key("b"))).isNull();
+        assertThat(cache.hits()).isEqualTo(1);
+        assertThat(cache.misses()).isEqualTo(1);
+    }
+
+    @Test
+    void should_evict_least_recently_used_blobs_when_exceeding_max_size() {
+        GitlabBlobCache cache = GitlabBlobCache.get(vertx, 10, GitlabMetrics.NOOP);
+        cache.put(key("a"), new byte[4]);
+        cache.put(key("b"), new byte[4]);
+        cache.get(key("a"));
+        cache.put(key("c"), new byte[4]);
+
+        assertThat(cache.get(key("a"))).isNotNull();
+        assertThat(cache.get(key("b"))).isNull();
+        assertThat(cache.get(key("c"))).isNotNull();
+        assertThat(cache.size()).isEqualTo(8);
+    }
+
+    @Test
+    void should_not_cache_blob_larger_than_max_size() {
+        GitlabBlobCache cache = GitlabBlobCache.get(vertx, 10, GitlabMetrics.NOOP);
+        cache.put(key("a"), new byte[11]);
+
+        assertThat(cache.get(key("a"))).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void should_publish_hits_and_misses() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        GitlabBlobCache cache = GitlabBlobCache.get(vertx, 10, new MicrometerGitlabMetrics(registry));
+        cache.put(key("a"), new byte[] { 1, 2, 3 });
+
+        cache.get(key("a"));
+        cache.get(key("a"));
+        cache.get(key("b"));
+
+        assertThat(registry.get("gravitee.fetcher.gitlab.blob_cache.hits").functionCounter().count()).isEqualTo(2);
+        assertThat(registry.get("gravitee.fetcher.gitlab.blob_cache.misses").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("gravitee.fetcher.gitlab.blob_cache.size").gauge().value()).isEqualTo(3);
+    }
+
+    private GitlabBlobCache.Key key(String blobId) {
+        return new GitlabBlobCache.Key("https://gitlab.com/api/v4", "namespace/project", blobId);
+    }
+}
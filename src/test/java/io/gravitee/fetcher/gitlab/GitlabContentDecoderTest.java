@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.vertx.core.buffer.Buffer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+class GitlabContentDecoderTest {
+
+    private static final String CONTENT = "{\"content\": \"R3Jhdml0ZWUuaW8gaXMgYXdlc29tZSE=\"}".repeat(100);
+
+    @Test
+    void should_decode_gzip_body() throws Exception {
+        assertThat(decode("gzip", gzip(CONTENT))).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void should_decode_deflate_body() throws Exception {
+        assertThat(decode("deflate", deflate(CONTENT))).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void should_fail_when_body_is_truncated() throws Exception {
+        byte[] encoded = gzip(CONTENT);
+
+        assertThatThrownBy(() -> GitlabContentDecoder.decode(Buffer.buffer(encoded).getBuffer(0, encoded.length - 4), "gzip"))
+            .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void should_accept_an_empty_body() throws Exception {
+        assertThat(GitlabContentDecoder.decode(Buffer.buffer(), "gzip").length()).isZero();
+    }
+
+    @Test
+    void should_not_decode_identity_body() throws Exception {
+        Buffer body = Buffer.buffer(CONTENT);
+
+        assertThat(GitlabContentDecoder.decode(body, null)).isSameAs(body);
+        assertThat(GitlabContentDecoder.decode(body, "identity")).isSameAs(body);
+    }
+
+    @Test
+    void should_decode_gzip_input_stream() throws Exception {
+        assertThat(GitlabContentDecoder.decode(new ByteArrayInputStream(gzip(CONTENT)), "gzip").readAllBytes()).isEqualTo(
+            CONTENT.getBytes(StandardCharsets.UTF_8)
+        );
+    }
+
+    private static String decode(String encoding, byte[] encoded) throws IOException {
+        return GitlabContentDecoder.decode(Buffer.buffer(encoded), encoding).toString(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] deflate(String content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflate = new DeflaterOutputStream(out)) {
+            deflate.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+}
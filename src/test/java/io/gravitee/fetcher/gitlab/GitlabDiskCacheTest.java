@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author GraviteeSource Team
+ */
+class GitlabDiskCacheTest {
+
+    private static final long MAX_SIZE = 400;
+
+    @TempDir
+    Path directory;
+
+    private Vertx vertx;
+
+    @BeforeEach
+    void setUp() {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void should_evict_least_recently_used_files_when_exceeding_max_size() throws Exception {
+        GitlabDiskCache cache = cache();
+        await(cache.write("a", entry("1", 'a')));
+        await(cache.write("b", entry("2", 'b')));
+        await(cache.read("a"));
+        await(cache.write("c", entry("3", 'c')));
+
+        assertThat(file("a")).exists();
+        assertThat(file("b")).doesNotExist();
+        assertThat(file("c")).exists();
+        assertThat(cache.size()).isLessThanOrEqualTo(MAX_SIZE);
+    }
+
+    @Test
+    void should_not_write_file_again_when_blob_did_not_change() throws Exception {
+        GitlabDiskCache cache = cache();
+        await(cache.write("a", entry("1", 'a')));
+        Files.setLastModifiedTime(file("a"), FileTime.fromMillis(0));
+
+        await(cache.write("a", entry("1", 'b')));
+
+        assertThat(Files.getLastModifiedTime(file("a")).toMillis()).isZero();
+        assertThat(content(await(cache.read("a")))).startsWith("a");
+    }
+
+    @Test
+    void should_evict_oldest_files_of_a_previous_run_first() throws Exception {
+        GitlabDiskCache cache = cache();
+        await(cache.write("a", entry("1", 'a')));
+        await(cache.write("b", entry("2", 'b')));
+        Files.setLastModifiedTime(file("a"), FileTime.fromMillis(2_000));
+        Files.setLastModifiedTime(file("b"), FileTime.fromMillis(1_000));
+        tearDown();
+        setUp();
+
+        await(cache().write("c", entry("3", 'c')));
+
+        assertThat(file("a")).exists();
+        assertThat(file("b")).doesNotExist();
+        assertThat(file("c")).exists();
+    }
+
+    private GitlabDiskCache cache() {
+        return GitlabDiskCache.get(vertx, new ObjectMapper(), directory.toString(), MAX_SIZE);
+    }
+
+    private Path file(String key) {
+        return directory.resolve(GitlabDiskCache.fileName(key));
+    }
+
+    private static GitlabDiskCache.Entry entry(String blobId, char content) {
+        return new GitlabDiskCache.Entry(blobId, Map.of(), ByteBuffer.wrap(String.valueOf(content).repeat(100).getBytes()));
+    }
+
+    private static String content(GitlabDiskCache.Entry entry) {
+        return StandardCharsets.UTF_8.decode(entry.content()).toString();
+    }
+
+    private static <T> T await(Future<T> future) throws Exception {
+        return future.toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+}
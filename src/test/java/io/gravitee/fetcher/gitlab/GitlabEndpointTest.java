@@ -0,0 +1,117 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+class GitlabEndpointTest {
+
+    @Test
+    void should_resolve_trimmed_and_encoded_values() {
+        GitlabEndpoint endpoint = GitlabEndpoint.of(
+            configuration(" https://gitlab.com/api/v4 ", " group/sub ", " project ", " feature/a ")
+        );
+
+        assertThat(endpoint.apiUrl()).isEqualTo("https://gitlab.com/api/v4");
+        assertThat(endpoint.projectPath()).isEqualTo("group/sub/project");
+        assertThat(endpoint.projectUrl()).isEqualTo("https://gitlab.com/api/v4/projects/group%2Fsub%2Fproject");
+        assertThat(endpoint.ref()).isEqualTo("feature/a");
+        assertThat(endpoint.encodedRef()).isEqualTo("feature%2Fa");
+        assertThat(endpoint.graphqlUrl()).isEqualTo("https://gitlab.com/api/graphql");
+    }
+
+    @Test
+    void should_default_to_master_ref() {
+        GitlabEndpoint endpoint = GitlabEndpoint.of(configuration("https://gitlab.com/api/v4", "group", "project", null));
+
+        assertThat(endpoint.ref()).isEqualTo("master");
+        assertThat(endpoint.editUrl("path/to/file.json")).isEqualTo("https://gitlab.com/group/project/edit/master/path/to/file.json");
+    }
+
+    @Test
+    void should_reject_url_which_is_not_absolute() {
+        assertThatThrownBy(() -> GitlabEndpoint.of(configuration("gitlab.com/api/v4", "group", "project", "master"))).isInstanceOf(
+            IllegalArgumentException.class
+        );
+        assertThatThrownBy(() -> GitlabEndpoint.of(configuration("ftp://gitlab.com/api/v4", "group", "project", "master"))).isInstanceOf(
+            IllegalArgumentException.class
+        );
+    }
+
+    @Test
+    void should_tell_whether_resolved_from_current_configuration() {
+        GitlabFetcherConfiguration configuration = configuration("https://gitlab.com/api/v4", "group", "project", "master");
+        GitlabEndpoint endpoint = GitlabEndpoint.of(configuration);
+
+        assertThat(endpoint.isResolvedFrom(configuration)).isTrue();
+
+        configuration.setBranchOrTag("develop");
+
+        assertThat(endpoint.isResolvedFrom(configuration)).isFalse();
+    }
+
+    @Test
+    void should_fingerprint_token_and_be_resolved_again_when_it_changes() {
+        GitlabFetcherConfiguration configuration = configuration("https://gitlab.com/api/v4", "group", "project", "master");
+        GitlabEndpoint anonymous = GitlabEndpoint.of(configuration);
+
+        configuration.setPrivateToken("token");
+        GitlabEndpoint authenticated = GitlabEndpoint.of(configuration);
+
+        assertThat(anonymous.credentials()).isEmpty();
+        assertThat(anonymous.isResolvedFrom(configuration)).isFalse();
+        assertThat(authenticated.credentials()).isNotEmpty().doesNotContain("token");
+        assertThat(authenticated.isResolvedFrom(configuration)).isTrue();
+    }
+
+    @Test
+    void should_parse_host_port_and_scheme() {
+        GitlabEndpoint https = GitlabEndpoint.of(configuration("https://gitlab.com/api/v4", "group", "project", "master"));
+        GitlabEndpoint http = GitlabEndpoint.of(configuration("http://localhost:8080/api/v4", "group", "project", "master"));
+
+        assertThat(https.host()).isEqualTo("gitlab.com");
+        assertThat(https.port()).isEqualTo(443);
+        assertThat(https.ssl()).isTrue();
+        assertThat(http.host()).isEqualTo("localhost");
+        assertThat(http.port()).isEqualTo(8080);
+        assertThat(http.ssl()).isFalse();
+    }
+
+    @Test
+    void should_return_path_and_query_of_urls_on_the_same_origin_only() {
+        GitlabEndpoint endpoint = GitlabEndpoint.of(configuration("https://gitlab.com/api/v4", "group", "project", "master"));
+
+        assertThat(endpoint.pathAndQuery("https://gitlab.com/api/v4/projects/1?ref=master")).isEqualTo("/api/v4/projects/1?ref=master");
+        assertThat(endpoint.pathAndQuery("https://gitlab.com.evil/api/v4/projects/1")).isNull();
+        assertThat(endpoint.pathAndQuery("https://gitlab.com:8443/api/v4/projects/1")).isNull();
+        assertThat(endpoint.pathAndQuery("http://gitlab.com/api/v4/projects/1")).isNull();
+    }
+
+    private static GitlabFetcherConfiguration configuration(String gitlabUrl, String namespace, String project, String branchOrTag) {
+        GitlabFetcherConfiguration configuration = new GitlabFetcherConfiguration();
+        configuration.setGitlabUrl(gitlabUrl);
+        configuration.setNamespace(namespace);
+        configuration.setProject(project);
+        configuration.setBranchOrTag(branchOrTag);
+        return configuration;
+    }
+}
@@ -17,15 +17,24 @@ package io.gravitee.fetcher.gitlab;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.tomakehurst.wiremock.http.Fault;
 import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
 import io.gravitee.fetcher.api.FetcherException;
+import io.gravitee.fetcher.api.Resource;
+import io.gravitee.fetcher.api.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.vertx.core.Vertx;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -41,6 +50,11 @@ class GitlabFetcherTest {
     @RegisterExtension
     static WireMockExtension wiremock = WireMockExtension.newInstance().options(wireMockConfig().dynamicPort()).build();
 
+    @RegisterExtension
+    static WireMockExtension wiremockTls = WireMockExtension.newInstance()
+        .options(wireMockConfig().dynamicPort().dynamicHttpsPort())
+        .build();
+
     private Vertx vertx;
 
     @BeforeEach
@@ -101,19 +115,320 @@ class GitlabFetcherTest {
         assertThatThrownBy(fetcher::fetch).isInstanceOf(FetcherException.class);
     }
 
+    @Test
+    void should_reuse_the_same_http_client_across_fetchers() throws Exception {
+        wiremock.stubFor(
+            get(urlEqualTo("/api/v4/projects/namespace%2Fproject/repository/files/path%2Fto%2Ffile?ref=sha1")).willReturn(
+                aResponse().withStatus(200).withBody("{\"content\": \"R3Jhdml0ZWUuaW8gaXMgYXdlc29tZSE=\"}")
+            )
+        );
+
+        fetcher(10_000).fetch();
+        fetcher(10_000).fetch();
+
+        assertThat(GitlabHttpClients.get(vertx).size()).isEqualTo(1);
+    }
+
+    @Test
+    void should_fetch_asynchronously() throws Exception {
+        wiremock.stubFor(
+            get(urlEqualTo("/api/v4/projects/namespace%2Fproject/repository/files/path%2Fto%2Ffile?ref=sha1")).willReturn(
+                aResponse().withStatus(200).withBody("{\"content\": \"R3Jhdml0ZWUuaW8gaXMgYXdlc29tZSE=\"}")
+            )
+        );
+
+        Resource resource = fetcher(10_000).fetchAsync().toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+        assertThat(new String(resource.getContent().readAllBytes())).isEqualTo("Gravitee.io is awesome!");
+    }
+
+    @Test
+    void should_share_concurrent_identical_fetches() throws Exception {
+        final String url = "/api/v4/projects/namespace%2Fproject/repository/files/path%2Fto%2Ffile?ref=sha1";
+        wiremock.stubFor(
+            get(urlEqualTo(url)).willReturn(
+                aResponse().withStatus(200).withFixedDelay(300).withBody("{\"content\": \"R3Jhdml0ZWUuaW8gaXMgYXdlc29tZSE=\"}")
+            )
+        );
+        GitlabFetcher otherToken = fetcher(10_000);
+        ((GitlabFetcherConfiguration) otherToken.getConfiguration()).setPrivateToken("other-token");
+
+        List<CompletableFuture<Resource>> fetches = List.of(
+            fetcher(10_000).fetchAsync().toCompletableFuture(),
+            fetcher(10_000).fetchAsync().toCompletableFuture(),
+            otherToken.fetchAsync().toCompletableFuture()
+        );
+
+        for (CompletableFuture<Resource> fetch : fetches) {
+            assertThat(new String(fetch.get(10, TimeUnit.SECONDS).getContent().readAllBytes())).isEqualTo("Gravitee.io is awesome!");
+        }
+        wiremock.verify(2, getRequestedFor(urlEqualTo(url)));
+    }
+
+    @Test
+    void should_send_requests_over_http2_when_enabled() throws Exception {
+        wiremockTls.stubFor(
+            get(urlPathMatching("/api/v4/projects/namespace%2Fproject/repository/files/.*")).willReturn(
+                aResponse().withStatus(200).withBody("{\"content\": \"R3Jhdml0ZWUuaW8gaXMgYXdlc29tZSE=\"}")
+            )
+        );
+        GitlabFetcher fetcher = fetcher(10_000);
+        ((GitlabFetcherConfiguration) fetcher.getConfiguration()).setGitlabUrl(wiremockTls.getRuntimeInfo().getHttpsBaseUrl() + "/api/v4");
+        ReflectionTestUtils.setField(fetcher, "httpClientHttp2Enabled", true);
+
+        List<GitlabFileResult> results = fetcher.fetchAll(List.of("/docs/a.md", "/docs/b.md", "/docs/c.md"));
+
+        assertThat(results).allMatch(GitlabFileResult::isSuccess);
+        assertThat(wiremockTls.getAllServeEvents()).hasSize(3).allMatch(event -> "HTTP/2.0".equals(event.getRequest().getProtocol()));
+        assertThat(GitlabHttpClients.get(vertx).size()).isEqualTo(1);
+    }
+
+    @Test
+    void should_decode_compressed_responses_when_compression_is_enabled() throws Exception {
+        final String url = "/api/v4/projects/namespace%2Fproject/repository/files/path%2Fto%2Ffile?ref=sha1";
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write("{\"content\": \"R3Jhdml0ZWUuaW8gaXMgYXdlc29tZSE=\"}".getBytes(StandardCharsets.UTF_8));
+        }
+        wiremock.stubFor(
+            get(urlEqualTo(url))
+                .withHeader("Accept-Encoding", containing("gzip"))
+                .willReturn(aResponse().withStatus(200).withHeader("Content-Encoding", "gzip").withBody(compressed.toByteArray()))
+        );
+        GitlabFetcher fetcher = fetcher(10_000);
+        ReflectionTestUtils.setField(fetcher, "httpClientCompressionEnabled", true);
+
+        Resource resource = fetcher.fetch();
+
+        assertThat(new String(resource.getContent().readAllBytes())).isEqualTo("Gravitee.io is awesome!");
+    }
+
+    @Test
+    void should_complete_exceptionally_with_resource_not_found_when_fetching_asynchronously_an_unknown_file() {
+        wiremock.stubFor(
+            get(urlEqualTo("/api/v4/projects/namespace%2Fproject/repository/files/path%2Fto%2Ffile?ref=sha1")).willReturn(
+                aResponse().withStatus(404)
+            )
+        );
+
+        assertThatThrownBy(() -> fetcher(10_000).fetchAsync().toCompletableFuture().get(10, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .hasCauseInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void should_fetch_all_files_and_isolate_failures() throws Exception {
+        wiremock.stubFor(
+            get(urlEqualTo("/api/v4/projects/namespace%2Fproject/repository/files/docs%2Fa.md?ref=sha1")).willReturn(
+                aResponse().withStatus(200).withBody("{\"content\": \"R3Jhdml0ZWUuaW8gaXMgYXdlc29tZSE=\"}")
+            )
+        );
+        wiremock.stubFor(
+            get(urlEqualTo("/api/v4/projects/namespace%2Fproject/repository/files/docs%2Fb.md?ref=sha1")).willReturn(
+                aResponse().withStatus(404)
+            )
+        );
+
+        List<GitlabFileResult> results = fetcher(10_000).fetchAll(List.of("/docs/a.md", "/docs/b.md"));
+
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).isSuccess()).isTrue();
+        assertThat(results.get(0).filepath()).isEqualTo("/docs/a.md");
+        assertThat(new String(results.get(0).resource().getContent().readAllBytes())).isEqualTo("Gravitee.io is awesome!");
+        assertThat((String) results.get(0).resource().getMetadata().get(GitlabFetcher.EDIT_URL_PROPERTY_KEY)).endsWith("/docs/a.md");
+        assertThat(results.get(1).isSuccess()).isFalse();
+        assertThat(results.get(1).error()).isInstanceOf(ResourceNotFoundException.class).hasMessageContaining("'/docs/b.md'");
+    }
+
+    @Test
+    void should_record_metrics_of_gitlab_calls() throws Exception {
+        wiremock.stubFor(
+            get(urlEqualTo("/api/v4/projects/namespace%2Fproject/repository/files/path%2Fto%2Ffile?ref=sha1")).willReturn(
+                aResponse().withStatus(200).withBody("{\"content\": \"R3Jhdml0ZWUuaW8gaXMgYXdlc29tZSE=\"}")
+            )
+        );
+        wiremock.stubFor(
+            get(urlEqualTo("/api/v4/projects/namespace%2Fproject/repository/files/unknown?ref=sha1")).willReturn(
+                aResponse().withStatus(404)
+            )
+        );
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        GitlabFetcher fetcher = fetcher(10_000);
+        ReflectionTestUtils.setField(fetcher, "metrics", new MicrometerGitlabMetrics(registry));
+
+        fetcher.fetch();
+        fetcher.fetchAll(List.of("unknown"));
+
+        assertThat(
+            registry.get("gravitee.fetcher.gitlab.duration").tags("host", "localhost", "operation", "fetch").timer().count()
+        ).isEqualTo(2);
+        assertThat(registry.get("gravitee.fetcher.gitlab.ttfb").timer().count()).isEqualTo(2);
+        assertThat(registry.get("gravitee.fetcher.gitlab.connect").timer().count()).isEqualTo(2);
+        assertThat(registry.get("gravitee.fetcher.gitlab.received").summary().totalAmount()).isEqualTo(47);
+        assertThat(registry.get("gravitee.fetcher.gitlab.transferred").summary().totalAmount()).isEqualTo(47);
+        assertThat(registry.get("gravitee.fetcher.gitlab.responses").tag("status", "200").counter().count()).isEqualTo(1);
+        assertThat(registry.get("gravitee.fetcher.gitlab.responses").tag("status", "404").counter().count()).isEqualTo(1);
+        assertThat(registry.get("gravitee.fetcher.gitlab.not_found").counter().count()).isEqualTo(1);
+        assertThat(registry.find("gravitee.fetcher.gitlab.errors").counter()).isNull();
+    }
+
+    @Test
+    void should_retry_when_gitlab_asks_to_retry_later() throws Exception {
+        final String url = "/api/v4/projects/namespace%2Fproject/repository/files/path%2Fto%2Ffile?ref=sha1";
+        wiremock.stubFor(
+            get(urlEqualTo(url))
+                .inScenario("rate limit")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(429).withHeader("Retry-After", "0"))
+                .willSetStateTo("unavailable")
+        );
+        wiremock.stubFor(
+            get(urlEqualTo(url))
+                .inScenario("rate limit")
+                .whenScenarioStateIs("unavailable")
+                .willReturn(aResponse().withStatus(503))
+                .willSetStateTo("available")
+        );
+        wiremock.stubFor(
+            get(urlEqualTo(url))
+                .inScenario("rate limit")
+                .whenScenarioStateIs("available")
+                .willReturn(aResponse().withStatus(200).withBody("{\"content\": \"R3Jhdml0ZWUuaW8gaXMgYXdlc29tZSE=\"}"))
+        );
+        GitlabFetcher fetcher = fetcher(10_000);
+        ReflectionTestUtils.setField(fetcher, "rateLimitMaxRetries", 2);
+        ReflectionTestUtils.setField(fetcher, "rateLimitInitialBackoff", 10L);
+
+        Resource resource = fetcher.fetch();
+
+        assertThat(new String(resource.getContent().readAllBytes())).isEqualTo("Gravitee.io is awesome!");
+        wiremock.verify(3, getRequestedFor(urlEqualTo(url)));
+    }
+
+    @Test
+    void should_fail_when_gitlab_still_asks_to_retry_later_after_the_last_retry() {
+        final String url = "/api/v4/projects/namespace%2Fproject/repository/files/path%2Fto%2Ffile?ref=sha1";
+        wiremock.stubFor(get(urlEqualTo(url)).willReturn(aResponse().withStatus(429)));
+        GitlabFetcher fetcher = fetcher(10_000);
+        ReflectionTestUtils.setField(fetcher, "rateLimitMaxRetries", 1);
+        ReflectionTestUtils.setField(fetcher, "rateLimitInitialBackoff", 10L);
+
+        assertThatThrownBy(fetcher::fetch).isInstanceOf(FetcherException.class);
+        wiremock.verify(2, getRequestedFor(urlEqualTo(url)));
+    }
+
+    @Test
+    void should_read_files_from_the_commit_the_ref_has_been_resolved_to() throws Exception {
+        wiremock.stubFor(
+            get(urlEqualTo("/api/v4/projects/namespace%2Fproject/repository/commits/sha1")).willReturn(
+                aResponse().withStatus(200).withBody("{\"id\": \"6104942438c14ec7bd21c6cd5bd995272b3faff6\"}")
+            )
+        );
+        wiremock.stubFor(
+            get(
+                urlEqualTo(
+                    "/api/v4/projects/namespace%2Fproject/repository/files/path%2Fto%2Ffile?ref=6104942438c14ec7bd21c6cd5bd995272b3faff6"
+                )
+            ).willReturn(aResponse().withStatus(200).withBody("{\"content\": \"R3Jhdml0ZWUuaW8gaXMgYXdlc29tZSE=\"}"))
+        );
+        wiremock.stubFor(
+            get(
+                urlEqualTo(
+                    "/api/v4/projects/namespace%2Fproject/repository/tree?path=path%2Fto%2Ffile" +
+                    "&ref=6104942438c14ec7bd21c6cd5bd995272b3faff6&recursive=true&per_page=100"
+                )
+            ).willReturn(aResponse().withStatus(200).withBody("[{\"type\": \"blob\", \"path\": \"path/to/file/a.md\"}]"))
+        );
+        GitlabFetcher fetcher = fetcher(10_000);
+        ((GitlabFetcherConfiguration) fetcher.getConfiguration()).setResolveRef(true);
+
+        Resource resource = fetcher.fetch();
+        String[] files = fetcher.files();
+
+        assertThat(new String(resource.getContent().readAllBytes())).isEqualTo("Gravitee.io is awesome!");
+        assertThat(files).containsExactly("/path/to/file/a.md");
+        wiremock.verify(1, getRequestedFor(urlEqualTo("/api/v4/projects/namespace%2Fproject/repository/commits/sha1")));
+    }
+
+    @Test
+    void should_address_project_by_its_resolved_id() throws Exception {
+        wiremock.stubFor(
+            get(urlEqualTo("/api/v4/projects/namespace%2Fproject")).willReturn(aResponse().withStatus(200).withBody("{\"id\": 42}"))
+        );
+        wiremock.stubFor(
+            get(urlEqualTo("/api/v4/projects/42/repository/files/path%2Fto%2Ffile?ref=sha1")).willReturn(
+                aResponse().withStatus(200).withBody("{\"content\": \"R3Jhdml0ZWUuaW8gaXMgYXdlc29tZSE=\"}")
+            )
+        );
+        GitlabFetcher fetcher = fetcher(10_000);
+        ((GitlabFetcherConfiguration) fetcher.getConfiguration()).setResolveProjectId(true);
+
+        Resource first = fetcher.fetch();
+        Resource second = fetcher.fetch();
+
+        assertThat(new String(first.getContent().readAllBytes())).isEqualTo("Gravitee.io is awesome!");
+        assertThat(new String(second.getContent().readAllBytes())).isEqualTo("Gravitee.io is awesome!");
+        wiremock.verify(1, getRequestedFor(urlEqualTo("/api/v4/projects/namespace%2Fproject")));
+        wiremock.verify(2, getRequestedFor(urlEqualTo("/api/v4/projects/42/repository/files/path%2Fto%2Ffile?ref=sha1")));
+    }
+
+    @Test
+    void should_resolve_project_id_again_once_project_not_found() {
+        wiremock.stubFor(
+            get(urlEqualTo("/api/v4/projects/namespace%2Fproject")).willReturn(aResponse().withStatus(200).withBody("{\"id\": 42}"))
+        );
+        wiremock.stubFor(
+            get(urlEqualTo("/api/v4/projects/42/repository/files/path%2Fto%2Ffile?ref=sha1")).willReturn(
+                aResponse().withStatus(404).withBody("{\"message\": \"404 Project Not Found\"}")
+            )
+        );
+        GitlabFetcher fetcher = fetcher(10_000);
+        ((GitlabFetcherConfiguration) fetcher.getConfiguration()).setResolveProjectId(true);
+
+        assertThatThrownBy(fetcher::fetch).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(fetcher::fetch).isInstanceOf(ResourceNotFoundException.class);
+
+        wiremock.verify(2, getRequestedFor(urlEqualTo("/api/v4/projects/namespace%2Fproject")));
+    }
+
+    @Test
+    void should_keep_project_id_when_file_not_found() {
+        wiremock.stubFor(
+            get(urlEqualTo("/api/v4/projects/namespace%2Fproject")).willReturn(aResponse().withStatus(200).withBody("{\"id\": 42}"))
+        );
+        wiremock.stubFor(
+            get(urlEqualTo("/api/v4/projects/42/repository/files/path%2Fto%2Ffile?ref=sha1")).willReturn(
+                aResponse().withStatus(404).withBody("{\"message\": \"404 File Not Found\"}")
+            )
+        );
+        GitlabFetcher fetcher = fetcher(10_000);
+        ((GitlabFetcherConfiguration) fetcher.getConfiguration()).setResolveProjectId(true);
+
+        assertThatThrownBy(fetcher::fetch).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(fetcher::fetch).isInstanceOf(ResourceNotFoundException.class);
+
+        wiremock.verify(1, getRequestedFor(urlEqualTo("/api/v4/projects/namespace%2Fproject")));
+        wiremock.verify(2, getRequestedFor(urlEqualTo("/api/v4/projects/42/repository/files/path%2Fto%2Ffile?ref=sha1")));
+    }
+
+    @Test
+    void should_address_project_by_its_path_when_its_id_cannot_be_resolved() throws Exception {
+        wiremock.stubFor(get(urlEqualTo("/api/v4/projects/namespace%2Fproject")).willReturn(aResponse().withStatus(500)));
+        wiremock.stubFor(
+            get(urlEqualTo("/api/v4/projects/namespace%2Fproject/repository/files/path%2Fto%2Ffile?ref=sha1")).willReturn(
+                aResponse().withStatus(200).withBody("{\"content\": \"R3Jhdml0ZWUuaW8gaXMgYXdlc29tZSE=\"}")
+            )
+        );
+        GitlabFetcher fetcher = fetcher(10_000);
+        ((GitlabFetcherConfiguration) fetcher.getConfiguration()).setResolveProjectId(true);
+
+        Resource resource = fetcher.fetch();
+
+        assertThat(new String(resource.getContent().readAllBytes())).isEqualTo("Gravitee.io is awesome!");
+    }
+
     private GitlabFetcher fetcher(int timeoutMs) {
-        GitlabFetcherConfiguration config = new GitlabFetcherConfiguration();
-        config.setFilepath("/path/to/file");
-        config.setProject("project");
-        config.setNamespace("namespace");
-        config.setGitlabUrl(wiremock.baseUrl() + "/api/v4");
-        config.setBranchOrTag("sha1");
-        config.setPrivateToken("token");
-        config.setApiVersion(ApiVersion.V4);
-
-        GitlabFetcher fetcher = new GitlabFetcher(config);
-        ReflectionTestUtils.setField(fetcher, "vertx", vertx);
-        ReflectionTestUtils.setField(fetcher, "mapper", new ObjectMapper());
+        GitlabFetcher fetcher = GitlabTestFetchers.fetcher(vertx, GitlabTestFetchers.config(wiremock.baseUrl(), "/path/to/file", "sha1"));
         ReflectionTestUtils.setField(fetcher, "httpClientTimeout", timeoutMs);
         return fetcher;
     }
@@ -0,0 +1,184 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import io.gravitee.fetcher.api.FetcherException;
+import io.gravitee.fetcher.api.Resource;
+import io.gravitee.fetcher.api.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vertx.core.Vertx;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class GitlabFetcher_ArchiveTest {
+
+    private static final String ARCHIVE_URL = "/api/v4/projects/namespace%2Fproject/repository/archive.zip?sha=sha1&path=docs";
+
+    @RegisterExtension
+    static WireMockExtension wiremock = WireMockExtension.newInstance().options(wireMockConfig().dynamicPort()).build();
+
+    private final GitlabFetcher fetcher = new GitlabFetcher(null);
+
+    private Vertx vertx = Vertx.vertx();
+    private ObjectMapper mapper = new ObjectMapper();
+
+    @BeforeEach
+    public void init() {
+        ReflectionTestUtils.setField(fetcher, "vertx", vertx);
+        ReflectionTestUtils.setField(fetcher, "mapper", mapper);
+        ReflectionTestUtils.setField(fetcher, "httpClientTimeout", 10_000);
+    }
+
+    @Test
+    public void shouldImportFilesOfTheFolderFromTheArchive() throws Exception {
+        wiremock.stubFor(
+            get(urlEqualTo(ARCHIVE_URL)).willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withBody(
+                        zip(
+                            "project-sha1-abcdef-docs/",
+                            "project-sha1-abcdef-docs/docs/",
+                            "project-sha1-abcdef-docs/docs/index.md",
+                            "project-sha1-abcdef-docs/docs/api/swagger.json",
+                            "project-sha1-abcdef-docs/docs-other/ignored.md"
+                        )
+                    )
+            )
+        );
+        ReflectionTestUtils.setField(fetcher, "gitlabFetcherConfiguration", config("/docs/", ApiVersion.V4));
+
+        final List<Resource> resources = new ArrayList<>();
+        try (GitlabArchive archive = fetcher.archive()) {
+            Resource resource;
+            while ((resource = archive.next()) != null) {
+                resources.add(resource);
+            }
+        }
+
+        assertThat(resources).hasSize(2);
+        assertThat(resources.get(0).getMetadata())
+            .containsEntry("path", "/docs/index.md")
+            .containsEntry("file_path", "docs/index.md")
+            .containsEntry("file_name", "index.md")
+            .containsEntry(GitlabFetcher.PROVIDER_NAME_PROPERTY_KEY, "GitLab")
+            .containsEntry(
+                GitlabFetcher.EDIT_URL_PROPERTY_KEY,
+                "http://localhost:" + wiremock.getPort() + "/namespace/project/edit/sha1/docs/index.md"
+            );
+        assertThat(new String(resources.get(0).getContent().readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(
+            "project-sha1-abcdef-docs/docs/index.md"
+        );
+        assertThat(resources.get(1).getMetadata()).containsEntry("path", "/docs/api/swagger.json");
+        wiremock.verify(1, getRequestedFor(anyUrl()));
+    }
+
+    @Test
+    public void shouldStopReadingArchiveWhenClosed() throws Exception {
+        wiremock.stubFor(
+            get(urlEqualTo(ARCHIVE_URL)).willReturn(
+                aResponse().withStatus(200).withBody(zip("project/docs/first.md", "project/docs/second.md"))
+            )
+        );
+        ReflectionTestUtils.setField(fetcher, "gitlabFetcherConfiguration", config("docs", ApiVersion.V4));
+
+        try (GitlabArchive archive = fetcher.archive()) {
+            assertThat(archive.next().getMetadata()).containsEntry("path", "/docs/first.md");
+        }
+    }
+
+    @Test
+    public void shouldRecordArchiveDownloadOnceReceived() throws Exception {
+        final byte[] body = zip("project/docs/first.md", "project/docs/second.md");
+        wiremock.stubFor(get(urlEqualTo(ARCHIVE_URL)).willReturn(aResponse().withStatus(200).withBody(body)));
+        ReflectionTestUtils.setField(fetcher, "gitlabFetcherConfiguration", config("docs", ApiVersion.V4));
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(fetcher, "metrics", new MicrometerGitlabMetrics(registry));
+
+        try (GitlabArchive archive = fetcher.archive()) {
+            while (archive.next() != null) {}
+        }
+
+        assertThat(
+            registry.get("gravitee.fetcher.gitlab.duration").tags("host", "localhost", "operation", "archive").timer().count()
+        ).isEqualTo(1);
+        assertThat(registry.get("gravitee.fetcher.gitlab.transferred").summary().totalAmount()).isEqualTo(body.length);
+        assertThat(registry.find("gravitee.fetcher.gitlab.errors").counter()).isNull();
+    }
+
+    @Test
+    public void shouldThrowResourceNotFoundWhenArchiveNotFound() {
+        wiremock.stubFor(get(urlEqualTo(ARCHIVE_URL)).willReturn(aResponse().withStatus(404)));
+        ReflectionTestUtils.setField(fetcher, "gitlabFetcherConfiguration", config("/docs", ApiVersion.V4));
+
+        assertThatThrownBy(fetcher::archive).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    public void shouldNotImportArchiveWithApiV3() {
+        ReflectionTestUtils.setField(fetcher, "gitlabFetcherConfiguration", config("/docs", ApiVersion.V3));
+
+        assertThatThrownBy(fetcher::archive).isInstanceOf(FetcherException.class).hasMessageContaining("v4");
+    }
+
+    private GitlabFetcherConfiguration config(String filepath, ApiVersion apiVersion) {
+        GitlabFetcherConfiguration config = new GitlabFetcherConfiguration();
+        config.setFilepath(filepath);
+        config.setProject("project");
+        config.setNamespace("namespace");
+        config.setGitlabUrl("http://localhost:" + wiremock.getPort() + "/api/v4");
+        config.setBranchOrTag("sha1");
+        config.setPrivateToken("token");
+        config.setApiVersion(apiVersion);
+        return config;
+    }
+
+    /**
+     * Builds a zip archive whose files contain their own name.
+     */
+    private static byte[] zip(String... names) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (String name : names) {
+                zip.putNextEntry(new ZipEntry(name));
+                if (!name.endsWith("/")) {
+                    zip.write(name.getBytes(StandardCharsets.UTF_8));
+                }
+                zip.closeEntry();
+            }
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import io.gravitee.fetcher.api.FetcherException;
+import io.vertx.core.Vertx;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+/**
+ * @author GraviteeSource Team
+ */
+class GitlabFetcher_ChangesTest {
+
+    private static final String COMPARE_URL = "/api/v4/projects/namespace%2Fproject/repository/compare?from=a1b2c3&to=main";
+
+    @RegisterExtension
+    static WireMockExtension wiremock = WireMockExtension.newInstance().options(wireMockConfig().dynamicPort()).build();
+
+    private Vertx vertx;
+
+    @BeforeEach
+    void setUp() {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void should_list_the_files_of_the_folder_changed_since_the_given_commit() throws Exception {
+        wiremock.stubFor(
+            get(urlEqualTo(COMPARE_URL)).willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withBody(
+                        "{\"commit\": {\"id\": \"d4e5f6\", \"message\": \"Update docs\"}, " +
+                        "\"commits\": [{\"id\": \"d4e5f6\"}], \"diffs\": [" +
+                        diff("docs/new.md", "docs/new.md", "new_file") +
+                        "," +
+                        diff("docs/index.md", "docs/index.md", null) +
+                        "," +
+                        diff("docs/old.md", "docs/old.md", "deleted_file") +
+                        "," +
+                        diff("docs/a.md", "docs/b.md", "renamed_file") +
+                        "," +
+                        diff("drafts/c.md", "docs/c.md", "renamed_file") +
+                        "," +
+                        diff("src/Main.java", "src/Main.java", null) +
+                        "], \"compare_timeout\": false, \"compare_same_ref\": false}"
+                    )
+            )
+        );
+
+        GitlabChanges changes = fetcher().changes("a1b2c3");
+
+        assertThat(changes.fromCommit()).isEqualTo("a1b2c3");
+        assertThat(changes.toCommit()).isEqualTo("d4e5f6");
+        assertThat(changes.changes()).containsExactly(
+            new GitlabChange(GitlabChange.Type.ADDED, "/docs/new.md", null),
+            new GitlabChange(GitlabChange.Type.MODIFIED, "/docs/index.md", null),
+            new GitlabChange(GitlabChange.Type.DELETED, "/docs/old.md", null),
+            new GitlabChange(GitlabChange.Type.RENAMED, "/docs/b.md", "/docs/a.md"),
+            new GitlabChange(GitlabChange.Type.ADDED, "/docs/c.md", null)
+        );
+    }
+
+    @Test
+    void should_fail_when_gitlab_timed_out_comparing_commits() {
+        wiremock.stubFor(
+            get(urlEqualTo(COMPARE_URL)).willReturn(
+                aResponse().withStatus(200).withBody("{\"commit\": null, \"diffs\": [], \"compare_timeout\": true}")
+            )
+        );
+
+        assertThatThrownBy(() -> fetcher().changes("a1b2c3")).isInstanceOf(FetcherException.class).hasMessageContaining("timed out");
+    }
+
+    @Test
+    void should_require_the_commit_to_compare_from() {
+        assertThatThrownBy(() -> fetcher().changes(" ")).isInstanceOf(FetcherException.class);
+    }
+
+    /**
+     * The diff of a file as returned by GitLab, {@code flag} being the one of {@code new_file}, {@code renamed_file} and
+     * {@code deleted_file} set to true, if any.
+     */
+    private static String diff(String oldPath, String newPath, String flag) {
+        return (
+            "{\"old_path\": \"" +
+            oldPath +
+            "\", \"new_path\": \"" +
+            newPath +
+            "\", \"a_mode\": \"100644\", \"b_mode\": \"100644\"" +
+            ", \"new_file\": " +
+            "new_file".equals(flag) +
+            ", \"renamed_file\": " +
+            "renamed_file".equals(flag) +
+            ", \"deleted_file\": " +
+            "deleted_file".equals(flag) +
+            ", \"diff\": \"@@ -1 +1 @@\\n-Gravitee\\n+Gravitee.io\\n\"}"
+        );
+    }
+
+    private GitlabFetcher fetcher() {
+        return GitlabTestFetchers.fetcher(vertx, GitlabTestFetchers.config(wiremock.baseUrl(), "/docs", "main"));
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import io.gravitee.fetcher.api.Resource;
+import io.vertx.core.Vertx;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * @author GraviteeSource Team
+ */
+class GitlabFetcher_DiskCacheTest {
+
+    private static final String FILE_URL = "/api/v4/projects/namespace%2Fproject/repository/files/path%2Fto%2Ffile?ref=sha1";
+    private static final String BLOB_ID = "79f7bbd25901e8334750839545a9bd021f0e4c83";
+    private static final String FILE_BODY = """
+        {"blob_id": "79f7bbd25901e8334750839545a9bd021f0e4c83", "content": "R3Jhdml0ZWUuaW8gaXMgYXdlc29tZSE="}""";
+
+    @RegisterExtension
+    static WireMockExtension wiremock = WireMockExtension.newInstance().options(wireMockConfig().dynamicPort()).build();
+
+    @TempDir
+    Path directory;
+
+    private Vertx vertx;
+
+    @BeforeEach
+    void setUp() {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void should_serve_content_from_disk_after_a_restart() throws Exception {
+        wiremock.stubFor(get(urlEqualTo(FILE_URL)).willReturn(aResponse().withStatus(200).withBody(FILE_BODY)));
+        fetcher().fetch();
+        waitUntil(() -> cacheFiles() == 1);
+
+        restart();
+        wiremock.resetAll();
+        wiremock.stubFor(get(urlEqualTo(FILE_URL)).willReturn(aResponse().withStatus(500)));
+        wiremock.stubFor(head(urlEqualTo(FILE_URL)).willReturn(aResponse().withStatus(200).withHeader("X-Gitlab-Blob-Id", BLOB_ID)));
+
+        Resource resource = fetcher().fetch();
+
+        assertThat(new String(resource.getContent().readAllBytes())).isEqualTo("Gravitee.io is awesome!");
+        assertThat(resource.getMetadata()).containsEntry("blob_id", BLOB_ID).containsValue("GitLab");
+        waitUntil(() -> wiremock.findAll(headRequestedFor(urlEqualTo(FILE_URL))).size() == 1);
+        wiremock.verify(0, getRequestedFor(urlEqualTo(FILE_URL)));
+    }
+
+    @Test
+    void should_update_disk_content_in_the_background_when_blob_changed() throws Exception {
+        wiremock.stubFor(get(urlEqualTo(FILE_URL)).willReturn(aResponse().withStatus(200).withBody(FILE_BODY)));
+        fetcher().fetch();
+        waitUntil(() -> cacheFiles() == 1);
+
+        restart();
+        wiremock.stubFor(
+            get(urlEqualTo(FILE_URL)).willReturn(
+                aResponse().withStatus(200).withBody("{\"blob_id\": \"a1b2c3\", \"content\": \"R3Jhdml0ZWUuaW8gNA==\"}")
+            )
+        );
+        wiremock.stubFor(head(urlEqualTo(FILE_URL)).willReturn(aResponse().withStatus(200).withHeader("X-Gitlab-Blob-Id", "a1b2c3")));
+
+        Resource stale = fetcher().fetch();
+        assertThat(new String(stale.getContent().readAllBytes())).isEqualTo("Gravitee.io is awesome!");
+        waitUntil(() -> wiremock.findAll(getRequestedFor(urlEqualTo(FILE_URL))).size() == 2);
+
+        waitUntil(() -> cacheFilesContain("Gravitee.io 4"));
+        restart();
+        wiremock.stubFor(get(urlEqualTo(FILE_URL)).willReturn(aResponse().withStatus(500)));
+
+        Resource updated = fetcher().fetch();
+        assertThat(new String(updated.getContent().readAllBytes())).isEqualTo("Gravitee.io 4");
+    }
+
+    @Test
+    void should_only_serve_disk_content_on_first_fetch_after_a_restart() throws Exception {
+        wiremock.stubFor(get(urlEqualTo(FILE_URL)).willReturn(aResponse().withStatus(200).withBody(FILE_BODY)));
+        fetcher().fetch();
+        waitUntil(() -> cacheFiles() == 1);
+
+        restart();
+        wiremock.stubFor(
+            get(urlEqualTo(FILE_URL)).willReturn(
+                aResponse().withStatus(200).withBody("{\"blob_id\": \"a1b2c3\", \"content\": \"R3Jhdml0ZWUuaW8gNA==\"}")
+            )
+        );
+        wiremock.stubFor(head(urlEqualTo(FILE_URL)).willReturn(aResponse().withStatus(200).withHeader("X-Gitlab-Blob-Id", "a1b2c3")));
+        GitlabFetcher fetcher = fetcher();
+
+        Resource first = fetcher.fetch();
+        Resource second = fetcher.fetch();
+
+        assertThat(new String(first.getContent().readAllBytes())).isEqualTo("Gravitee.io is awesome!");
+        assertThat(new String(second.getContent().readAllBytes())).isEqualTo("Gravitee.io 4");
+    }
+
+    private boolean cacheFilesContain(String content) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(file -> file.toString().endsWith(".entry"))
+                .anyMatch(file -> {
+                    try {
+                        return new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1).contains(content);
+                    } catch (Exception e) {
+                        return false;
+                    }
+                });
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private void restart() throws Exception {
+        tearDown();
+        setUp();
+    }
+
+    private long cacheFiles() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".entry")).count();
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition met in time").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    private GitlabFetcher fetcher() {
+        GitlabFetcher fetcher = GitlabTestFetchers.fetcher(vertx, GitlabTestFetchers.config(wiremock.baseUrl(), "/path/to/file", "sha1"));
+        ReflectionTestUtils.setField(fetcher, "diskCacheDirectory", directory.toString());
+        return fetcher;
+    }
+}
@@ -23,6 +23,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
 import io.gravitee.fetcher.api.FetcherException;
+import io.gravitee.fetcher.api.Resource;
 import io.vertx.core.Vertx;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
@@ -179,6 +180,41 @@ class GitlabFetcher_FetchTest {
         assertThat(decoded).isEqualTo(content);
     }
 
+    @Test
+    public void shouldFetchRawContentInV4() throws Exception {
+        String content = "Gravitee.io is awesome!";
+
+        wiremock.stubFor(
+            get(urlEqualTo("/api/v4/projects/namespace%2Fproject/repository/files/path%2Fto%2Ffile/raw?ref=sha1")).willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("X-Gitlab-Blob-Id", "79f7bbd25901e8334750839545a9bd021f0e4c83")
+                    .withHeader("X-Gitlab-Last-Commit-Id", "570e7b2abdd848b95f2f578043fc23bd6f6fd24d")
+                    .withHeader("X-Gitlab-Size", "23")
+                    .withBody(content)
+            )
+        );
+        GitlabFetcherConfiguration config = new GitlabFetcherConfiguration();
+        config.setFilepath("/path/to/file");
+        config.setProject("project");
+        config.setNamespace("namespace");
+        config.setGitlabUrl(wiremock.baseUrl() + "/api/v4");
+        config.setBranchOrTag("sha1");
+        config.setPrivateToken("token");
+        config.setApiVersion(ApiVersion.V4);
+        config.setFetchMode(FetchMode.RAW);
+        ReflectionTestUtils.setField(fetcher, "gitlabFetcherConfiguration", config);
+        ReflectionTestUtils.setField(fetcher, "httpClientTimeout", 10_000);
+
+        Resource resource = fetcher.fetch();
+
+        assertThat(new String(resource.getContent().readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(content);
+        assertThat(resource.getMetadata())
+            .containsEntry("blob_id", "79f7bbd25901e8334750839545a9bd021f0e4c83")
+            .containsEntry("last_commit_id", "570e7b2abdd848b95f2f578043fc23bd6f6fd24d")
+            .containsEntry("size", 23L);
+    }
+
     @Test
     public void shouldThrowExceptionWhenStatusNot200() throws Exception {
         String content = "Gravitee.io is awesome!";
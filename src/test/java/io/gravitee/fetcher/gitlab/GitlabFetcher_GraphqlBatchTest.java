@@ -0,0 +1,157 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import io.gravitee.fetcher.api.ResourceNotFoundException;
+import io.vertx.core.Vertx;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * @author GraviteeSource Team
+ */
+class GitlabFetcher_GraphqlBatchTest {
+
+    private static final String GRAPHQL_URL = "/api/graphql";
+    private static final String FILES_URL = "/api/v4/projects/namespace%2Fproject/repository/files/";
+
+    @RegisterExtension
+    static WireMockExtension wiremock = WireMockExtension.newInstance().options(wireMockConfig().dynamicPort()).build();
+
+    private Vertx vertx;
+
+    @BeforeEach
+    void setUp() {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void should_fetch_files_in_batches() throws Exception {
+        wiremock.stubFor(
+            post(urlEqualTo(GRAPHQL_URL))
+                .withRequestBody(matchingJsonPath("$.variables.paths[0]", equalTo("docs/a.md")))
+                .willReturn(
+                    aResponse()
+                        .withStatus(200)
+                        .withBody(
+                            "{\"data\": {\"project\": {\"repository\": {\"blobs\": {\"nodes\": [" +
+                            blob("docs/a.md", "Gravitee.io") +
+                            "," +
+                            blob("docs/b.md", "is awesome!") +
+                            "]}}}}}"
+                        )
+                )
+        );
+        wiremock.stubFor(
+            post(urlEqualTo(GRAPHQL_URL))
+                .withRequestBody(matchingJsonPath("$.variables.paths[0]", equalTo("docs/c.md")))
+                .willReturn(
+                    aResponse().withStatus(200).withBody("{\"data\": {\"project\": {\"repository\": {\"blobs\": {\"nodes\": []}}}}}")
+                )
+        );
+
+        List<GitlabFileResult> results = fetcher().fetchAll(List.of("/docs/a.md", "/docs/b.md", "/docs/c.md"));
+
+        assertThat(results).extracting(GitlabFileResult::filepath).containsExactly("/docs/a.md", "/docs/b.md", "/docs/c.md");
+        assertThat(new String(results.get(0).resource().getContent().readAllBytes())).isEqualTo("Gravitee.io");
+        assertThat(results.get(0).resource().getMetadata()).containsEntry("file_path", "docs/a.md").containsEntry("size", 11L);
+        assertThat(new String(results.get(1).resource().getContent().readAllBytes())).isEqualTo("is awesome!");
+        assertThat(results.get(2).error()).isInstanceOf(ResourceNotFoundException.class);
+        wiremock.verify(2, postRequestedFor(urlEqualTo(GRAPHQL_URL)));
+        wiremock.verify(0, getRequestedFor(urlPathMatching(FILES_URL + ".*")));
+    }
+
+    @Test
+    void should_fetch_files_not_returned_as_text_one_by_one() throws Exception {
+        wiremock.stubFor(
+            post(urlEqualTo(GRAPHQL_URL)).willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withBody(
+                        "{\"data\": {\"project\": {\"repository\": {\"blobs\": {\"nodes\": [" +
+                        "{\"path\": \"docs/logo.png\", \"name\": \"logo.png\", \"oid\": \"a1b2c3\", " +
+                        "\"size\": \"23\", \"rawTextBlob\": null}" +
+                        "]}}}}}"
+                    )
+            )
+        );
+        wiremock.stubFor(
+            get(urlEqualTo(FILES_URL + "docs%2Flogo.png?ref=main")).willReturn(
+                aResponse().withStatus(200).withBody("{\"content\": \"R3Jhdml0ZWUuaW8gaXMgYXdlc29tZSE=\"}")
+            )
+        );
+
+        List<GitlabFileResult> results = fetcher().fetchAll(List.of("/docs/logo.png"));
+
+        assertThat(new String(results.get(0).resource().getContent().readAllBytes())).isEqualTo("Gravitee.io is awesome!");
+    }
+
+    @Test
+    void should_fetch_files_one_by_one_when_graphql_api_fails() throws Exception {
+        wiremock.stubFor(
+            post(urlEqualTo(GRAPHQL_URL)).willReturn(
+                aResponse().withStatus(200).withBody("{\"data\": null, \"errors\": [{\"message\": \"Query has complexity of 300\"}]}")
+            )
+        );
+        wiremock.stubFor(
+            get(urlEqualTo(FILES_URL + "docs%2Fa.md?ref=main")).willReturn(
+                aResponse().withStatus(200).withBody("{\"content\": \"R3Jhdml0ZWUuaW8gaXMgYXdlc29tZSE=\"}")
+            )
+        );
+
+        List<GitlabFileResult> results = fetcher().fetchAll(List.of("/docs/a.md"));
+
+        assertThat(new String(results.get(0).resource().getContent().readAllBytes())).isEqualTo("Gravitee.io is awesome!");
+    }
+
+    private static String blob(String path, String content) {
+        return (
+            "{\"path\": \"" +
+            path +
+            "\", \"name\": \"" +
+            path.substring(path.lastIndexOf('/') + 1) +
+            "\", \"oid\": \"79f7bbd25901e8334750839545a9bd021f0e4c83\", \"size\": \"" +
+            content.length() +
+            "\", \"rawTextBlob\": \"" +
+            content +
+            "\"}"
+        );
+    }
+
+    private GitlabFetcher fetcher() {
+        GitlabFetcherConfiguration config = GitlabTestFetchers.config(wiremock.baseUrl(), "/docs", "main");
+        config.setGraphqlBatch(true);
+
+        GitlabFetcher fetcher = GitlabTestFetchers.fetcher(vertx, config);
+        ReflectionTestUtils.setField(fetcher, "graphqlBatchSize", 2);
+        return fetcher;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import io.gravitee.fetcher.api.Resource;
+import io.vertx.core.Vertx;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * @author GraviteeSource Team
+ */
+class GitlabFetcher_RevalidationTest {
+
+    private static final String FILE_URL = "/api/v4/projects/namespace%2Fproject/repository/files/path%2Fto%2Ffile?ref=sha1";
+    private static final String COMMIT_URL = "/api/v4/projects/namespace%2Fproject/repository/commits/sha1";
+    private static final String FILE_BODY = """
+        {"blob_id": "79f7bbd25901e8334750839545a9bd021f0e4c83", "content": "R3Jhdml0ZWUuaW8gaXMgYXdlc29tZSE="}""";
+
+    @RegisterExtension
+    static WireMockExtension wiremock = WireMockExtension.newInstance().options(wireMockConfig().dynamicPort()).build();
+
+    private Vertx vertx;
+
+    @BeforeEach
+    void setUp() {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void should_not_download_content_again_when_blob_did_not_change() throws Exception {
+        wiremock.stubFor(get(urlEqualTo(FILE_URL)).willReturn(aResponse().withStatus(200).withBody(FILE_BODY)));
+        wiremock.stubFor(
+            head(urlEqualTo(FILE_URL)).willReturn(
+                aResponse().withStatus(200).withHeader("X-Gitlab-Blob-Id", "79f7bbd25901e8334750839545a9bd021f0e4c83")
+            )
+        );
+
+        fetcher().fetch();
+        Resource resource = fetcher().fetch();
+
+        assertThat(new String(resource.getContent().readAllBytes())).isEqualTo("Gravitee.io is awesome!");
+        assertThat(resource.getMetadata()).containsEntry("blob_id", "79f7bbd25901e8334750839545a9bd021f0e4c83");
+        wiremock.verify(1, getRequestedFor(urlEqualTo(FILE_URL)));
+    }
+
+    @Test
+    void should_download_content_again_when_blob_changed() throws Exception {
+        wiremock.stubFor(get(urlEqualTo(FILE_URL)).willReturn(aResponse().withStatus(200).withBody(FILE_BODY)));
+        wiremock.stubFor(
+            head(urlEqualTo(FILE_URL)).willReturn(
+                aResponse().withStatus(200).withHeader("X-Gitlab-Blob-Id", "a9e8e7e4b4f5b0b2b7fd1c8bd0a1b3c2d4e5f607")
+            )
+        );
+
+        fetcher().fetch();
+        fetcher().fetch();
+
+        wiremock.verify(2, getRequestedFor(urlEqualTo(FILE_URL)));
+    }
+
+    @Test
+    void should_share_the_commit_check_of_auto_fetches_and_not_download_content_when_ref_did_not_move() throws Exception {
+        wiremock.stubFor(get(urlEqualTo(FILE_URL)).willReturn(aResponse().withStatus(200).withBody(FILE_BODY)));
+        wiremock.stubFor(
+            get(urlEqualTo(COMMIT_URL)).willReturn(
+                aResponse().withStatus(200).withBody("{\"id\": \"6104942438c14ec7bd21c6cd5bd995272b3faff6\"}")
+            )
+        );
+
+        autoFetcher().fetch();
+        Resource resource = autoFetcher().fetch();
+
+        assertThat(new String(resource.getContent().readAllBytes())).isEqualTo("Gravitee.io is awesome!");
+        wiremock.verify(1, getRequestedFor(urlEqualTo(COMMIT_URL)));
+        wiremock.verify(1, getRequestedFor(urlEqualTo(FILE_URL)));
+    }
+
+    @Test
+    void should_download_content_of_auto_fetches_when_commit_check_fails() throws Exception {
+        wiremock.stubFor(get(urlEqualTo(FILE_URL)).willReturn(aResponse().withStatus(200).withBody(FILE_BODY)));
+        wiremock.stubFor(get(urlEqualTo(COMMIT_URL)).willReturn(aResponse().withStatus(500)));
+
+        autoFetcher().fetch();
+        autoFetcher().fetch();
+
+        wiremock.verify(2, getRequestedFor(urlEqualTo(FILE_URL)));
+    }
+
+    private GitlabFetcher autoFetcher() {
+        GitlabFetcher fetcher = fetcher();
+        GitlabFetcherConfiguration config = (GitlabFetcherConfiguration) fetcher.getConfiguration();
+        config.setAutoFetch(true);
+        config.setFetchCron("0 */5 * * * *");
+        ReflectionTestUtils.setField(fetcher, "autoFetchCommitCheckTtl", 10_000L);
+        return fetcher;
+    }
+
+    private GitlabFetcher fetcher() {
+        GitlabFetcherConfiguration config = GitlabTestFetchers.config(wiremock.baseUrl(), "/path/to/file", "sha1");
+        config.setRevalidate(true);
+        return GitlabTestFetchers.fetcher(vertx, config);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import io.gravitee.fetcher.api.FetcherException;
+import io.gravitee.fetcher.api.Resource;
+import io.vertx.core.Vertx;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * @author GraviteeSource Team
+ */
+class GitlabFetcher_TlsTest {
+
+    private static final String FILE_URL = "/api/v4/projects/namespace%2Fproject/repository/files/path%2Fto%2Ffile?ref=sha1";
+
+    @RegisterExtension
+    static WireMockExtension wiremock = WireMockExtension.newInstance().options(wireMockConfig().dynamicPort().dynamicHttpsPort()).build();
+
+    private Vertx vertx;
+
+    @BeforeEach
+    void setUp() {
+        vertx = Vertx.vertx();
+        wiremock.stubFor(
+            get(urlEqualTo(FILE_URL)).willReturn(
+                aResponse().withStatus(200).withBody("{\"content\": \"R3Jhdml0ZWUuaW8gaXMgYXdlc29tZSE=\"}")
+            )
+        );
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void should_reject_untrusted_certificate_by_default() {
+        assertThatThrownBy(fetcher()::fetch).isInstanceOf(FetcherException.class);
+        wiremock.verify(0, getRequestedFor(urlEqualTo(FILE_URL)));
+    }
+
+    @Test
+    void should_trust_any_certificate_when_trust_all_is_enabled() throws Exception {
+        GitlabFetcher fetcher = fetcher();
+        ReflectionTestUtils.setField(fetcher, "httpClientSslTrustAll", true);
+
+        Resource resource = fetcher.fetch();
+
+        assertThat(new String(resource.getContent().readAllBytes())).isEqualTo("Gravitee.io is awesome!");
+    }
+
+    @Test
+    void should_verify_certificate_against_the_configured_ca() throws Exception {
+        GitlabFetcher fetcher = fetcher();
+        ((GitlabFetcherConfiguration) fetcher.getConfiguration()).setCaCertificate(serverCertificate());
+        // The certificate of WireMock is not issued for localhost
+        ReflectionTestUtils.setField(fetcher, "httpClientSslVerifyHost", false);
+
+        Resource resource = fetcher.fetch();
+
+        assertThat(new String(resource.getContent().readAllBytes())).isEqualTo("Gravitee.io is awesome!");
+    }
+
+    /**
+     * @return the PEM encoded certificate WireMock presents.
+     */
+    private static String serverCertificate() throws Exception {
+        final SSLContext context = SSLContext.getInstance("TLS");
+        context.init(null, new TrustManager[] { new TrustAllManager() }, null);
+        try (SSLSocket socket = (SSLSocket) context.getSocketFactory().createSocket("localhost", wiremock.getHttpsPort())) {
+            socket.startHandshake();
+            final Certificate certificate = socket.getSession().getPeerCertificates()[0];
+            return (
+                "-----BEGIN CERTIFICATE-----\n" +
+                Base64.getMimeEncoder(64, "\n".getBytes()).encodeToString(certificate.getEncoded()) +
+                "\n-----END CERTIFICATE-----\n"
+            );
+        }
+    }
+
+    private GitlabFetcher fetcher() {
+        GitlabFetcher fetcher = GitlabTestFetchers.fetcher(
+            vertx,
+            GitlabTestFetchers.config(wiremock.getRuntimeInfo().getHttpsBaseUrl(), "/path/to/file", "sha1")
+        );
+        ReflectionTestUtils.setField(fetcher, "httpClientSslVerifyHost", true);
+        return fetcher;
+    }
+
+    private static final class TrustAllManager implements X509TrustManager {
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType) {}
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType) {}
+
+        @Override
+        public X509Certificate[] getAcceptedIssuers() {
+            return new X509Certificate[0];
+        }
+    }
+}
@@ -24,6 +24,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
 import io.gravitee.fetcher.api.FetcherException;
 import io.vertx.core.Vertx;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
@@ -177,6 +179,95 @@ public class GitlabFetcher_TreeTest {
         assertThat(tree).contains("/path/to/filepath/swagger.yml", "/path/to/filepath/subdir/doc.md");
     }
 
+    @Test
+    public void shouldTreeAllPagesWhenTotalPagesIsKnown() throws Exception {
+        final String url = "/api/v4/projects/namespace%2Fproject/repository/tree?path=docs&ref=sha1&recursive=true&per_page=2";
+        wiremock.stubFor(
+            get(urlEqualTo(url)).willReturn(aResponse().withStatus(200).withHeader("X-Total-Pages", "3").withBody(page("docs/a.md")))
+        );
+        wiremock.stubFor(get(urlEqualTo(url + "&page=2")).willReturn(aResponse().withStatus(200).withBody(page("docs/b.md"))));
+        wiremock.stubFor(get(urlEqualTo(url + "&page=3")).willReturn(aResponse().withStatus(200).withBody(page("docs/c.md"))));
+
+        ReflectionTestUtils.setField(fetcher, "gitlabFetcherConfiguration", pagedConfig());
+        ReflectionTestUtils.setField(fetcher, "httpClientTimeout", 10_000);
+
+        String[] tree = fetcher.files();
+
+        assertThat(tree).containsExactly("/docs/a.md", "/docs/b.md", "/docs/c.md");
+    }
+
+    @Test
+    public void shouldTreeAllPagesByFollowingNextPage() throws Exception {
+        final String url = "/api/v4/projects/namespace%2Fproject/repository/tree?path=docs&ref=sha1&recursive=true&per_page=2";
+        wiremock.stubFor(
+            get(urlEqualTo(url)).willReturn(aResponse().withStatus(200).withHeader("X-Next-Page", "2").withBody(page("docs/a.md")))
+        );
+        wiremock.stubFor(
+            get(urlEqualTo(url + "&page=2")).willReturn(
+                aResponse().withStatus(200).withHeader("X-Next-Page", "").withBody(page("docs/b.md"))
+            )
+        );
+
+        ReflectionTestUtils.setField(fetcher, "gitlabFetcherConfiguration", pagedConfig());
+        ReflectionTestUtils.setField(fetcher, "httpClientTimeout", 10_000);
+
+        String[] tree = fetcher.files();
+
+        assertThat(tree).containsExactly("/docs/a.md", "/docs/b.md");
+    }
+
+    @Test
+    public void shouldStreamTreeEntriesPageByPage() throws Exception {
+        final String url = "/api/v4/projects/namespace%2Fproject/repository/tree?path=docs&ref=sha1&recursive=true&per_page=2";
+        wiremock.stubFor(
+            get(urlEqualTo(url)).willReturn(aResponse().withStatus(200).withHeader("X-Next-Page", "2").withBody(page("docs/a.md")))
+        );
+        wiremock.stubFor(
+            get(urlEqualTo(url + "&page=2")).willReturn(
+                aResponse().withStatus(200).withHeader("X-Next-Page", "").withBody(page("docs/b.md"))
+            )
+        );
+
+        ReflectionTestUtils.setField(fetcher, "gitlabFetcherConfiguration", pagedConfig());
+        ReflectionTestUtils.setField(fetcher, "httpClientTimeout", 10_000);
+
+        List<GitlabTreeEntry> entries = new ArrayList<>();
+        try (GitlabTree tree = fetcher.tree()) {
+            GitlabTreeEntry entry = tree.next();
+            wiremock.verify(0, getRequestedFor(urlEqualTo(url + "&page=2")));
+            while (entry != null) {
+                entries.add(entry);
+                entry = tree.next();
+            }
+        }
+
+        assertThat(entries).containsExactly(
+            new GitlabTreeEntry("blob", "docs/a.md", "8fbc3cda5e3d58d102ab2661543e0769fd21ba5b", "100644"),
+            new GitlabTreeEntry("blob", "docs/b.md", "8fbc3cda5e3d58d102ab2661543e0769fd21ba5b", "100644")
+        );
+    }
+
+    private GitlabFetcherConfiguration pagedConfig() {
+        GitlabFetcherConfiguration config = new GitlabFetcherConfiguration();
+        config.setFilepath("/docs");
+        config.setProject("project");
+        config.setNamespace("namespace");
+        config.setGitlabUrl("http://localhost:" + wiremock.getPort() + "/api/v4");
+        config.setBranchOrTag("sha1");
+        config.setPrivateToken("token");
+        config.setApiVersion(ApiVersion.V4);
+        config.setTreePageSize(2);
+        return config;
+    }
+
+    private String page(String path) {
+        return (
+            "[{\"id\": \"8fbc3cda5e3d58d102ab2661543e0769fd21ba5b\", \"type\": \"blob\", \"path\": \"" +
+            path +
+            "\", \"mode\": \"100644\"}]"
+        );
+    }
+
     private final String treeResponse = """
         [
             {
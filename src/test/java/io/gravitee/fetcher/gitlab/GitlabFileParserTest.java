@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.vertx.core.buffer.Buffer;
+import java.io.IOException;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+class GitlabFileParserTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void should_extract_metadata_and_decode_content() throws Exception {
+        String content = "Gravitee.io is awesome!";
+        Buffer body = Buffer.buffer(
+            "{\"file_name\": \"README.md\", \"size\": 23, \"content\": \"" +
+            Base64.getEncoder().encodeToString(content.getBytes()) +
+            "\", \"blob_id\": \"79f7bbd25901e8334750839545a9bd021f0e4c83\"}"
+        );
+
+        GitlabFileParser.GitlabFile file = GitlabFileParser.parse(mapper, body);
+
+        assertThat(file.metadata())
+            .containsEntry("file_name", "README.md")
+            .containsEntry("size", 23)
+            .containsEntry("blob_id", "79f7bbd25901e8334750839545a9bd021f0e4c83")
+            .doesNotContainKey("content");
+        assertThat(file.content().available()).isEqualTo(content.length());
+        assertThat(new String(file.content().readAllBytes())).isEqualTo(content);
+    }
+
+    @Test
+    void should_decode_content_of_any_length() throws Exception {
+        for (int length = 0; length < 10; length++) {
+            byte[] content = new byte[length];
+            for (int i = 0; i < length; i++) {
+                content[i] = (byte) (i * 37);
+            }
+            Buffer body = Buffer.buffer("{\"content\":\"" + Base64.getEncoder().encodeToString(content) + "\"}");
+
+            GitlabFileParser.GitlabFile file = GitlabFileParser.parse(mapper, body);
+
+            assertThat(file.content().available()).isEqualTo(length);
+            assertThat(file.content().readAllBytes()).containsExactly(content);
+        }
+    }
+
+    @Test
+    void should_not_return_content_when_absent() throws Exception {
+        GitlabFileParser.GitlabFile file = GitlabFileParser.parse(mapper, Buffer.buffer("{\"key\": \"value\"}"));
+
+        assertThat(file.content()).isNull();
+        assertThat(file.metadata()).containsEntry("key", "value");
+    }
+
+    @Test
+    void should_reject_content_not_in_base64() {
+        Buffer body = Buffer.buffer("{\"content\": \"not base64 content\"}");
+
+        assertThatThrownBy(() -> GitlabFileParser.parse(mapper, body)).hasMessage("Illegal base64 character 20");
+    }
+
+    @Test
+    void should_reject_response_not_being_an_object() {
+        assertThatThrownBy(() -> GitlabFileParser.parse(mapper, Buffer.buffer("[]"))).isInstanceOf(IOException.class);
+    }
+}
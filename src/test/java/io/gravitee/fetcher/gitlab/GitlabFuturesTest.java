@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+class GitlabFuturesTest {
+
+    @Test
+    void should_map_many_already_completed_items_without_growing_the_stack() {
+        List<Integer> items = IntStream.range(0, 200_000).boxed().toList();
+
+        Future<List<Integer>> results = GitlabFutures.mapWithConcurrency(items, 4, item -> Future.succeededFuture(item * 2));
+
+        assertThat(results.succeeded()).isTrue();
+        assertThat(results.result()).hasSize(200_000).startsWith(0, 2, 4).endsWith(399_998);
+    }
+
+    @Test
+    void should_keep_order_and_concurrency_of_pending_items() {
+        List<Promise<String>> pending = new ArrayList<>();
+
+        Future<List<String>> results = GitlabFutures.mapWithConcurrency(List.of("a", "b", "c"), 2, item -> {
+            Promise<String> promise = Promise.promise();
+            pending.add(promise);
+            return promise.future().map(value -> item + value);
+        });
+
+        assertThat(pending).hasSize(2);
+        pending.get(1).complete("2");
+        assertThat(pending).hasSize(3);
+        pending.get(2).complete("3");
+        pending.get(0).complete("1");
+
+        assertThat(results.result()).containsExactly("a1", "b2", "c3");
+    }
+
+    @Test
+    void should_fail_as_soon_as_an_item_fails() {
+        Future<List<Integer>> results = GitlabFutures.mapWithConcurrency(List.of(1, 2, 3), 1, item ->
+            item == 2 ? Future.failedFuture(new IllegalStateException("boom")) : Future.succeededFuture(item)
+        );
+
+        assertThat(results.failed()).isTrue();
+        assertThat(results.cause()).hasMessage("boom");
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+class GitlabRateLimiterTest {
+
+    private static final String HOST = "gitlab.com";
+    private static final long NOW = 1_700_000_000_000L;
+
+    private final AtomicLong now = new AtomicLong(NOW);
+    private final List<Long> delays = new ArrayList<>();
+    private final GitlabRateLimiter rateLimiter = new GitlabRateLimiter(now::get, delay -> {
+        delays.add(delay);
+        return Future.succeededFuture();
+    });
+
+    @Test
+    void should_not_delay_hosts_without_rate_limit() {
+        assertThat(acquire()).isZero();
+    }
+
+    @Test
+    void should_not_delay_while_enough_calls_remain() {
+        rateLimiter.update(HOST, rateLimit(100, NOW + 60_000));
+
+        assertThat(acquire()).isZero();
+        assertThat(acquire()).isZero();
+    }
+
+    @Test
+    void should_spread_the_last_calls_until_the_reset() {
+        rateLimiter.update(HOST, rateLimit(4, NOW + 8_000));
+
+        assertThat(acquire()).isZero();
+        assertThat(acquire()).isEqualTo(2_000);
+        assertThat(acquire()).isEqualTo(4_000);
+    }
+
+    @Test
+    void should_delay_until_the_reset_once_no_call_remains() {
+        rateLimiter.update(HOST, rateLimit(0, NOW + 30_000));
+
+        assertThat(acquire()).isEqualTo(30_000);
+        now.set(NOW + 30_000);
+        assertThat(acquire()).isZero();
+    }
+
+    @Test
+    void should_delay_until_the_time_gitlab_asked_to_retry_at() {
+        rateLimiter.block(HOST, 5_000, NOW);
+
+        now.set(NOW + 1_000);
+        assertThat(acquire()).isEqualTo(4_000);
+    }
+
+    @Test
+    void should_read_retry_after_in_seconds_or_as_a_date() {
+        assertThat(GitlabRateLimiter.retryAfter(MultiMap.caseInsensitiveMultiMap().add("Retry-After", "3"), NOW)).isEqualTo(3_000);
+        assertThat(
+            GitlabRateLimiter.retryAfter(MultiMap.caseInsensitiveMultiMap().add("Retry-After", "Tue, 14 Nov 2023 22:13:30 GMT"), NOW)
+        ).isEqualTo(10_000);
+        assertThat(GitlabRateLimiter.retryAfter(MultiMap.caseInsensitiveMultiMap(), NOW)).isEqualTo(-1);
+    }
+
+    /**
+     * @return the time the call to the host has been delayed by, {@code 0} if it has not been delayed at all.
+     */
+    private long acquire() {
+        delays.clear();
+        assertThat(rateLimiter.acquire(HOST).succeeded()).isTrue();
+        return delays.isEmpty() ? 0 : delays.get(0);
+    }
+
+    private static MultiMap rateLimit(long remaining, long resetAt) {
+        return MultiMap.caseInsensitiveMultiMap()
+            .add("RateLimit-Remaining", String.valueOf(remaining))
+            .add("RateLimit-Reset", String.valueOf(resetAt / 1000));
+    }
+}
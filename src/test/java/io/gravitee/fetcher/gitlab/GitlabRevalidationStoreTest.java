@@ -0,0 +1,83 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.vertx.core.Vertx;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+class GitlabRevalidationStoreTest {
+
+    private Vertx vertx;
+
+    @BeforeEach
+    void setUp() {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void should_evict_least_recently_used_entries_when_exceeding_max_size() {
+        GitlabRevalidationStore store = GitlabRevalidationStore.get(vertx, 100, 10);
+        store.put("a", entry(4));
+        store.put("b", entry(4));
+        store.get("a");
+        store.put("c", entry(4));
+
+        assertThat(store.get("a")).isNotNull();
+        assertThat(store.get("b")).isNull();
+        assertThat(store.get("c")).isNotNull();
+        assertThat(store.size()).isEqualTo(8);
+    }
+
+    @Test
+    void should_evict_least_recently_used_entries_when_exceeding_max_entries() {
+        GitlabRevalidationStore store = GitlabRevalidationStore.get(vertx, 2, 100);
+        store.put("a", entry(1));
+        store.put("b", entry(1));
+        store.put("c", entry(1));
+
+        assertThat(store.get("a")).isNull();
+        assertThat(store.get("b")).isNotNull();
+        assertThat(store.get("c")).isNotNull();
+    }
+
+    @Test
+    void should_not_store_entry_larger_than_max_size() {
+        GitlabRevalidationStore store = GitlabRevalidationStore.get(vertx, 100, 10);
+        store.put("a", entry(4));
+        store.put("a", entry(11));
+
+        assertThat(store.get("a")).isNull();
+        assertThat(store.size()).isZero();
+    }
+
+    private static GitlabRevalidationStore.Entry entry(int size) {
+        return new GitlabRevalidationStore.Entry("blob", "etag", Map.of(), new byte[size]);
+    }
+}
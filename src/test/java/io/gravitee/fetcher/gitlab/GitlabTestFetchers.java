@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.vertx.core.Vertx;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Builds the fetchers of the tests the way the node would, outside of any Spring context.
+ *
+ * @author GraviteeSource Team
+ */
+final class GitlabTestFetchers {
+
+    private GitlabTestFetchers() {}
+
+    /**
+     * @param baseUrl the url of the GitLab stub, without the API path.
+     * @return the configuration of the given file of {@code namespace/project}, read with the v4 API.
+     */
+    static GitlabFetcherConfiguration config(String baseUrl, String filepath, String ref) {
+        GitlabFetcherConfiguration config = new GitlabFetcherConfiguration();
+        config.setFilepath(filepath);
+        config.setProject("project");
+        config.setNamespace("namespace");
+        config.setGitlabUrl(baseUrl + "/api/v4");
+        config.setBranchOrTag(ref);
+        config.setPrivateToken("token");
+        config.setApiVersion(ApiVersion.V4);
+        return config;
+    }
+
+    /**
+     * @return a fetcher of the given configuration, whose calls time out after 10 seconds.
+     */
+    static GitlabFetcher fetcher(Vertx vertx, GitlabFetcherConfiguration config) {
+        GitlabFetcher fetcher = new GitlabFetcher(config);
+        ReflectionTestUtils.setField(fetcher, "vertx", vertx);
+        ReflectionTestUtils.setField(fetcher, "mapper", new ObjectMapper());
+        ReflectionTestUtils.setField(fetcher, "httpClientTimeout", 10_000);
+        return fetcher;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.vertx.core.buffer.Buffer;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+class GitlabTreeParserTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void should_extract_type_path_id_and_mode_of_entries() throws Exception {
+        Buffer page = Buffer.buffer(
+            "[" +
+            "{\"id\": \"a1\", \"name\": \"docs\", \"type\": \"tree\", \"path\": \"docs\", \"mode\": \"040000\"}," +
+            "{\"id\": \"b2\", \"name\": \"index.md\", \"type\": \"blob\", \"path\": \"docs/index.md\", \"mode\": \"100644\"," +
+            "\"extra\": {\"x\": [1]}}" +
+            "]"
+        );
+
+        assertThat(GitlabTreeParser.parse(mapper, page)).containsExactly(
+            new GitlabTreeEntry("tree", "docs", "a1", "040000"),
+            new GitlabTreeEntry("blob", "docs/index.md", "b2", "100644")
+        );
+    }
+
+    @Test
+    void should_return_no_entry_when_page_is_not_an_array() throws Exception {
+        assertThat(GitlabTreeParser.parse(mapper, Buffer.buffer("{\"message\": \"404 Tree Not Found\"}"))).isEmpty();
+    }
+
+    @Test
+    void should_fail_when_page_is_not_json() {
+        assertThatThrownBy(() -> GitlabTreeParser.parse(mapper, Buffer.buffer("[{\"type\": "))).isInstanceOf(IOException.class);
+    }
+}
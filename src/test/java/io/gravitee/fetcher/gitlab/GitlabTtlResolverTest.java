@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.fetcher.gitlab;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+class GitlabTtlResolverTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private final AtomicLong now = new AtomicLong(NOW);
+    private final AtomicInteger loads = new AtomicInteger();
+    private final GitlabTtlResolver<String, String> resolver = new GitlabTtlResolver<>(now::get);
+
+    @Test
+    void should_share_a_pending_resolution() {
+        Promise<String> pending = Promise.promise();
+
+        Future<String> first = resolver.resolve("key", 1_000, () -> {
+            loads.incrementAndGet();
+            return pending.future();
+        });
+        Future<String> second = resolver.resolve("key", 1_000, this::load);
+        pending.complete("value");
+
+        assertThat(first.result()).isEqualTo("value");
+        assertThat(second.result()).isEqualTo("value");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void should_resolve_again_once_expired() {
+        resolver.resolve("key", 1_000, this::load);
+        now.set(NOW + 999);
+        resolver.resolve("key", 1_000, this::load);
+
+        assertThat(resolver.resolved("key")).isEqualTo("value1");
+        assertThat(loads).hasValue(1);
+
+        now.set(NOW + 1_000);
+
+        assertThat(resolver.resolved("key")).isNull();
+        assertThat(resolver.resolve("key", 1_000, this::load).result()).isEqualTo("value2");
+    }
+
+    @Test
+    void should_not_remember_failed_resolution() {
+        resolver.resolve("key", 1_000, () -> Future.failedFuture(new IllegalStateException("boom")));
+
+        assertThat(resolver.resolved("key")).isNull();
+        assertThat(resolver.resolve("key", 1_000, this::load).result()).isEqualTo("value1");
+    }
+
+    @Test
+    void should_remember_failed_resolution_when_asked_to() {
+        Future<String> failed = resolver.resolve("key", 1_000, 100, () -> Future.failedFuture(new IllegalStateException("boom")));
+        now.set(NOW + 99);
+
+        assertThat(resolver.resolve("key", 1_000, 100, this::load)).isSameAs(failed);
+        assertThat(resolver.resolved("key")).isNull();
+        assertThat(loads).hasValue(0);
+
+        now.set(NOW + 100);
+
+        assertThat(resolver.resolve("key", 1_000, 100, this::load).result()).isEqualTo("value1");
+    }
+
+    @Test
+    void should_only_invalidate_the_given_value() {
+        resolver.resolve("key", 1_000, this::load);
+
+        resolver.invalidate("key", "other");
+        assertThat(resolver.resolved("key")).isEqualTo("value1");
+
+        resolver.invalidate("key", "value1");
+        assertThat(resolver.resolved("key")).isNull();
+    }
+
+    private Future<String> load() {
+        return Future.succeededFuture("value" + loads.incrementAndGet());
+    }
+}